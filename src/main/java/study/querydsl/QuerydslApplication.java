@@ -4,9 +4,13 @@ import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import study.querydsl.change.ChangeCapturingQueryFactory;
+import study.querydsl.change.ChangeEventBus;
 
 import javax.persistence.EntityManager;
 
+@EnableScheduling
 @SpringBootApplication
 public class QuerydslApplication {
 
@@ -14,8 +18,9 @@ public class QuerydslApplication {
 		SpringApplication.run(QuerydslApplication.class, args);
 	}
 
+	// 벌크 update / delete 도 변경 이벤트로 발행한다.
 	@Bean
-	JPAQueryFactory jpaQueryFactory(EntityManager em) {
-		return new JPAQueryFactory(em);
+	JPAQueryFactory jpaQueryFactory(EntityManager em, ChangeEventBus changeEventBus) {
+		return new ChangeCapturingQueryFactory(em, changeEventBus);
 	}
 }
@@ -0,0 +1,67 @@
+package study.querydsl.batch;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 배치 작업 파티션(id 범위) 하나의 진행 위치
+ * 청크를 처리한 트랜잭션 안에서 lastId 를 함께 갱신하므로, 재시작하면 마지막으로 커밋된 청크 다음부터 처리한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(indexes = @Index(name = "idx_batch_job_checkpoint_job_name", columnList = "jobName"))
+public class BatchJobCheckpoint {
+
+    /**
+     * jobName#partitionNo
+     */
+    @Id
+    private String id;
+
+    private String jobName;
+
+    private int partitionNo;
+
+    private long fromId;
+
+    private long toId;
+
+    private long lastId;
+
+    private long processed;
+
+    private boolean completed;
+
+    private LocalDateTime updatedAt;
+
+    public BatchJobCheckpoint(String jobName, int partitionNo, long fromId, long toId) {
+        this.id = jobName + "#" + partitionNo;
+        this.jobName = jobName;
+        this.partitionNo = partitionNo;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.lastId = fromId - 1;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    void advance(long lastId, int processed) {
+        this.lastId = lastId;
+        this.processed += processed;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    void complete() {
+        this.completed = true;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
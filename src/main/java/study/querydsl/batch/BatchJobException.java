@@ -0,0 +1,11 @@
+package study.querydsl.batch;
+
+/**
+ * 청크 처리에 실패했을 때 발생한다. 실패한 청크는 롤백되고 체크포인트는 직전 청크에 남는다.
+ */
+public class BatchJobException extends RuntimeException {
+
+    public BatchJobException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
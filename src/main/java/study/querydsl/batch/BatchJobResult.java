@@ -0,0 +1,32 @@
+package study.querydsl.batch;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * resumed 가 true 이면 이전 실행이 남긴 체크포인트부터 이어서 처리했다는 뜻이다.
+ * alreadyCompleted 가 true 이면 이전 실행에서 이미 완료된 작업이라 아무것도 처리하지 않았다는 뜻이다.
+ * processed 는 이번 실행에서 처리한 회원 수다.
+ */
+@Getter
+@ToString
+public class BatchJobResult {
+
+    private final String jobName;
+    private final boolean resumed;
+    private final boolean alreadyCompleted;
+    private final int partitions;
+    private final long processed;
+    private final long chunks;
+    private final long elapsedMillis;
+
+    BatchJobResult(String jobName, boolean resumed, boolean alreadyCompleted, int partitions, long processed, long chunks, long elapsedMillis) {
+        this.jobName = jobName;
+        this.resumed = resumed;
+        this.alreadyCompleted = alreadyCompleted;
+        this.partitions = partitions;
+        this.processed = processed;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,120 @@
+package study.querydsl.batch;
+
+import com.querydsl.core.types.Predicate;
+import org.springframework.util.Assert;
+
+/**
+ * 회원 배치 작업 설정
+ *
+ * <pre>
+ * MemberBatchJob job = MemberBatchJob.builder("age-plus-one", (member, em) -> member.setAge(member.getAge() + 1))
+ *         .chunkSize(500)
+ *         .parallelism(4)
+ *         .build();
+ * BatchJobResult result = memberBatchJobRunner.run(job);
+ * </pre>
+ */
+public class MemberBatchJob {
+
+    private final String name;
+    private final MemberItemProcessor processor;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Predicate condition;
+    private final boolean rerun;
+
+    private MemberBatchJob(Builder builder) {
+        this.name = builder.name;
+        this.processor = builder.processor;
+        this.chunkSize = builder.chunkSize;
+        this.parallelism = builder.parallelism;
+        this.condition = builder.condition;
+        this.rerun = builder.rerun;
+    }
+
+    /**
+     * @param name 재시작 위치(BatchJobCheckpoint)를 찾는 키이므로 작업마다 고유해야 한다.
+     */
+    public static Builder builder(String name, MemberItemProcessor processor) {
+        return new Builder(name, processor);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public MemberItemProcessor getProcessor() {
+        return processor;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public Predicate getCondition() {
+        return condition;
+    }
+
+    public boolean isRerun() {
+        return rerun;
+    }
+
+    public static class Builder {
+
+        private final String name;
+        private final MemberItemProcessor processor;
+        private int chunkSize = 500;
+        private int parallelism = 1;
+        private Predicate condition;
+        private boolean rerun;
+
+        private Builder(String name, MemberItemProcessor processor) {
+            Assert.hasText(name, "Name must not be empty!");
+            Assert.notNull(processor, "Processor must not be null!");
+            this.name = name;
+            this.processor = processor;
+        }
+
+        /**
+         * 한 트랜잭션에서 처리할 회원 수 (flush, clear, commit 단위)
+         */
+        public Builder chunkSize(int chunkSize) {
+            Assert.isTrue(chunkSize > 0, "Chunk size must be positive!");
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * id 범위를 나눌 파티션 수, 파티션마다 별도의 스레드와 EntityManager(커넥션)를 사용한다.
+         */
+        public Builder parallelism(int parallelism) {
+            Assert.isTrue(parallelism > 0, "Parallelism must be positive!");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * 처리 대상 회원 조건 (없으면 전체)
+         */
+        public Builder condition(Predicate condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        /**
+         * 이미 완료된 작업(모든 체크포인트가 완료)을 처음부터 다시 실행한다. 기본값은 false 로, 완료된 작업은 실행하지 않는다.
+         */
+        public Builder rerun(boolean rerun) {
+            this.rerun = rerun;
+            return this;
+        }
+
+        public MemberBatchJob build() {
+            return new MemberBatchJob(this);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package study.querydsl.batch;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static study.querydsl.batch.QBatchJobCheckpoint.batchJobCheckpoint;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 회원 전체를 도는 배치 작업을 청크 단위로 실행한다.
+ *
+ * 1. 처리 대상 id 범위(min ~ max)를 parallelism 개로 나누고 파티션마다 BatchJobCheckpoint 를 저장한다.
+ * 2. 파티션마다 id 순서로 chunkSize 건씩 조회(keyset)해서 처리하고, 체크포인트와 함께 flush, commit 한 뒤 clear 한다.
+ *    영속성 컨텍스트에는 한 청크만 남으므로 회원 수와 관계없이 메모리, flush 비용이 일정하다.
+ * 3. 파티션이 여러 개이면 파티션마다 별도 스레드, EntityManager(커넥션)로 동시에 처리한다.
+ *
+ * 완료되지 않은 체크포인트가 남아 있으면 범위를 다시 나누지 않고 남은 파티션만 이어서 처리한다.
+ * 모든 체크포인트가 완료된 작업은 다시 처리하지 않고 alreadyCompleted 결과를 반환한다. (rerun 이면 처음부터 다시 실행한다.)
+ * 범위를 나눈 뒤 추가된 회원(max 보다 큰 id)은 이번 실행에서 처리하지 않는다.
+ *
+ * 스프링 트랜잭션과 연결되지 않은 EntityManager 를 직접 열어서 청크마다 커밋하므로 트랜잭션 안에서 호출하지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberBatchJobRunner {
+
+    private final EntityManagerFactory emf;
+    private final MeterRegistry meterRegistry;
+
+    public MemberBatchJobRunner(EntityManagerFactory emf, MeterRegistry meterRegistry) {
+        this.emf = emf;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public BatchJobResult run(MemberBatchJob job) {
+        long start = System.nanoTime();
+
+        List<BatchJobCheckpoint> existing = checkpoints(job.getName());
+        List<BatchJobCheckpoint> checkpoints = existing.stream()
+                .filter(checkpoint -> !checkpoint.isCompleted())
+                .collect(Collectors.toList());
+        boolean resumed = !checkpoints.isEmpty();
+        if (resumed) {
+            log.info("resume batch job {} from {}", job.getName(), checkpoints);
+        } else if (!existing.isEmpty() && !job.isRerun()) {
+            log.info("batch job {} is already completed, set rerun to run it again", job.getName());
+            return new BatchJobResult(job.getName(), false, true, existing.size(), 0, 0,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } else {
+            checkpoints = inTransaction(em -> plan(em, job));
+        }
+
+        List<PartitionResult> results = checkpoints.size() > 1 && job.getParallelism() > 1
+                ? runParallel(job, checkpoints)
+                : runSequential(job, checkpoints);
+
+        long processed = results.stream().mapToLong(result -> result.processed).sum();
+        long chunks = results.stream().mapToLong(result -> result.chunks).sum();
+        return new BatchJobResult(job.getName(), resumed, false, checkpoints.size(), processed, chunks,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public List<BatchJobCheckpoint> checkpoints(String jobName) {
+        return inTransaction(em -> new JPAQueryFactory(em)
+                .selectFrom(batchJobCheckpoint)
+                .where(batchJobCheckpoint.jobName.eq(jobName))
+                .orderBy(batchJobCheckpoint.partitionNo.asc())
+                .fetch());
+    }
+
+    private List<BatchJobCheckpoint> plan(EntityManager em, MemberBatchJob job) {
+        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+        queryFactory.delete(batchJobCheckpoint)
+                .where(batchJobCheckpoint.jobName.eq(job.getName()))
+                .execute();
+
+        Tuple range = queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .where(job.getCondition())
+                .fetchOne();
+        Long minId = range == null ? null : range.get(member.id.min());
+        Long maxId = range == null ? null : range.get(member.id.max());
+        if (minId == null || maxId == null) {
+            return List.of();
+        }
+
+        long span = maxId - minId + 1;
+        long size = (span + job.getParallelism() - 1) / job.getParallelism();
+        List<BatchJobCheckpoint> checkpoints = new ArrayList<>();
+        for (int i = 0; i < job.getParallelism(); i++) {
+            long fromId = minId + i * size;
+            if (fromId > maxId) {
+                break;
+            }
+            BatchJobCheckpoint checkpoint = new BatchJobCheckpoint(job.getName(), i, fromId, Math.min(maxId, fromId + size - 1));
+            em.persist(checkpoint);
+            checkpoints.add(checkpoint);
+        }
+        return checkpoints;
+    }
+
+    private List<PartitionResult> runSequential(MemberBatchJob job, List<BatchJobCheckpoint> checkpoints) {
+        List<PartitionResult> results = new ArrayList<>();
+        for (BatchJobCheckpoint checkpoint : checkpoints) {
+            results.add(runPartition(job, checkpoint.getId()));
+        }
+        return results;
+    }
+
+    /**
+     * 한 파티션이 실패해도 나머지 파티션은 끝까지 처리하고, 실패한 파티션은 재시작 때 이어서 처리한다.
+     */
+    private List<PartitionResult> runParallel(MemberBatchJob job, List<BatchJobCheckpoint> checkpoints) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(job.getParallelism(), checkpoints.size()));
+        try {
+            List<Future<PartitionResult>> futures = checkpoints.stream()
+                    .map(checkpoint -> executor.submit(() -> runPartition(job, checkpoint.getId())))
+                    .collect(Collectors.toList());
+
+            List<PartitionResult> results = new ArrayList<>();
+            BatchJobException failure = null;
+            for (Future<PartitionResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    BatchJobException cause = e.getCause() instanceof BatchJobException
+                            ? (BatchJobException) e.getCause()
+                            : new BatchJobException("batch job " + job.getName() + " failed", e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BatchJobException("batch job " + job.getName() + " interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PartitionResult runPartition(MemberBatchJob job, String checkpointId) {
+        Timer chunkTimer = meterRegistry.timer("batch.member.chunk", "job", job.getName());
+        PartitionResult result = new PartitionResult();
+        EntityManager em = emf.createEntityManager();
+        try {
+            JPAQueryFactory queryFactory = new DeadlineJPAQueryFactory(em);
+            boolean completed = false;
+            while (!completed) {
+                long chunkStart = System.nanoTime();
+                EntityTransaction tx = em.getTransaction();
+                try {
+                    tx.begin();
+                    BatchJobCheckpoint checkpoint = em.find(BatchJobCheckpoint.class, checkpointId);
+                    List<Member> chunk = queryFactory
+                            .selectFrom(member)
+                            .where(member.id.gt(checkpoint.getLastId()),
+                                    member.id.loe(checkpoint.getToId()),
+                                    job.getCondition())
+                            .orderBy(member.id.asc())
+                            .limit(job.getChunkSize())
+                            .fetch();
+
+                    for (Member item : chunk) {
+                        job.getProcessor().process(item, em);
+                    }
+                    if (!chunk.isEmpty()) {
+                        checkpoint.advance(chunk.get(chunk.size() - 1).getId(), chunk.size());
+                    }
+                    completed = chunk.size() < job.getChunkSize();
+                    if (completed) {
+                        checkpoint.complete();
+                    }
+
+                    em.flush();
+                    tx.commit();
+                    em.clear();
+
+                    result.processed += chunk.size();
+                    result.chunks++;
+                    chunkTimer.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+                } catch (RuntimeException e) {
+                    if (tx.isActive()) {
+                        tx.rollback();
+                    }
+                    em.clear();
+                    throw new BatchJobException("batch job " + job.getName() + " failed, " + checkpointId + " will resume from the last committed chunk", e);
+                }
+            }
+            meterRegistry.counter("batch.member.processed", "job", job.getName()).increment(result.processed);
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            T result = work.apply(em);
+            tx.commit();
+            return result;
+        } catch (RuntimeException | Error e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static class PartitionResult {
+
+        private long processed;
+        private long chunks;
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.batch;
+
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 청크 안의 회원 한 명을 처리한다.
+ * member 는 영속 상태이므로 값을 바꾸면 청크 커밋 때 반영된다.
+ * em 은 청크마다 clear 되므로 이전 청크의 엔티티를 보관해서 쓰지 않는다. (팀은 em.getReference() 로 다시 얻는다.)
+ */
+@FunctionalInterface
+public interface MemberItemProcessor {
+
+    void process(Member member, EntityManager em);
+}
@@ -0,0 +1,67 @@
+package study.querydsl.change;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 벌크 update / delete 실행 결과를 커밋 후 ChangeEventBus 로 발행하는 JPAQueryFactory
+ *
+ * 벌크 연산은 영속성 컨텍스트와 Hibernate 이벤트를 거치지 않으므로 엔티티 리스너로는 잡히지 않는다.
+ * 어떤 row 가 바뀌었는지는 알 수 없어서 엔티티 타입과 변경된 row 수만 발행한다.
+ */
+public class ChangeCapturingQueryFactory extends DeadlineJPAQueryFactory {
+
+    private final ChangeEventBus changeEventBus;
+
+    public ChangeCapturingQueryFactory(EntityManager em, ChangeEventBus changeEventBus) {
+        super(em);
+        this.changeEventBus = changeEventBus;
+    }
+
+    @Override
+    public JPAUpdateClause update(EntityPath<?> path) {
+        return new JPAUpdateClause(getEntityManager(), path, JPAProvider.getTemplates(getEntityManager())) {
+            @Override
+            public long execute() {
+                long affectedRows = super.execute();
+                publishAfterCommit(EntityChange.bulk(ChangeType.BULK_UPDATE, path.getType(), affectedRows));
+                return affectedRows;
+            }
+        };
+    }
+
+    @Override
+    public JPADeleteClause delete(EntityPath<?> path) {
+        return new JPADeleteClause(getEntityManager(), path, JPAProvider.getTemplates(getEntityManager())) {
+            @Override
+            public long execute() {
+                long affectedRows = super.execute();
+                publishAfterCommit(EntityChange.bulk(ChangeType.BULK_DELETE, path.getType(), affectedRows));
+                return affectedRows;
+            }
+        };
+    }
+
+    private void publishAfterCommit(EntityChange change) {
+        if (change.getAffectedRows() == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeEventBus.publish(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changeEventBus.publish(change);
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.change;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.support.BoundedRingBuffer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 커밋된 엔티티 변경을 링 버퍼에 모았다가 소비 스레드 하나가 배치로 ChangeSubscriber 에 전달한다.
+ *
+ * 발행하는 쪽(커밋한 요청 스레드)은 버퍼에 넣기만 하고 기다리지 않는다.
+ * 버퍼가 가득 차면 변경을 버리고 change.events.dropped 를 올린다. (구독자는 유실 가능성을 전제로 한다.)
+ * change.events.lag 는 발행부터 구독자 호출까지 걸린 시간, change.events.pending 은 버퍼에 쌓인 건수다.
+ * 버퍼가 비면 소비 스레드는 시간 제한 없이 잠들고, 발행하는 쪽이 소비 스레드가 잠들어 있을 때만 깨운다.
+ */
+@Slf4j
+@Component
+public class ChangeEventBus {
+
+    private final BoundedRingBuffer<EntityChange> buffer;
+    private final ObjectProvider<ChangeSubscriber> subscribers;
+    private final int batchSize;
+
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter delivered;
+    private final Timer lag;
+
+    private volatile boolean running;
+    // 소비 스레드가 잠들려는 중이면 true, 발행하는 쪽은 이때만 깨운다.
+    private volatile boolean consumerWaiting;
+    private volatile Thread consumer;
+
+    public ChangeEventBus(ObjectProvider<ChangeSubscriber> subscribers, MeterRegistry meterRegistry,
+                          @Value("${querydsl.change-events.buffer-size:8192}") int bufferSize,
+                          @Value("${querydsl.change-events.batch-size:256}") int batchSize) {
+        this.buffer = new BoundedRingBuffer<>(bufferSize);
+        this.subscribers = subscribers;
+        this.batchSize = batchSize;
+        this.published = meterRegistry.counter("change.events.published");
+        this.dropped = meterRegistry.counter("change.events.dropped");
+        this.delivered = meterRegistry.counter("change.events.delivered");
+        this.lag = meterRegistry.timer("change.events.lag");
+        meterRegistry.gauge("change.events.pending", buffer, BoundedRingBuffer::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        consumer = new Thread(this::consumeLoop, "change-event-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public boolean publish(EntityChange change) {
+        if (buffer.offer(change)) {
+            published.increment();
+            if (consumerWaiting) {
+                LockSupport.unpark(consumer);
+            }
+            return true;
+        }
+        dropped.increment();
+        log.warn("change event buffer is full, dropped {}", change);
+        return false;
+    }
+
+    private void consumeLoop() {
+        List<EntityChange> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            buffer.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                // 표시한 뒤에 버퍼를 다시 확인한다. 표시 전에 들어온 변경은 여기서 보이고,
+                // 표시 후에 들어온 변경은 발행한 쪽이 unpark 하므로 깨어나지 못하는 경우가 없다.
+                consumerWaiting = true;
+                if (running && buffer.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                consumerWaiting = false;
+                continue;
+            }
+            dispatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void dispatch(List<EntityChange> batch) {
+        List<EntityChange> changes = List.copyOf(batch);
+        subscribers.orderedStream().forEach(subscriber -> {
+            try {
+                subscriber.onChanges(changes);
+            } catch (RuntimeException e) {
+                log.error("change subscriber {} failed", subscriber, e);
+            }
+        });
+
+        long now = System.nanoTime();
+        for (EntityChange change : changes) {
+            lag.record(now - change.getPublishedNanos(), TimeUnit.NANOSECONDS);
+        }
+        delivered.increment(changes.size());
+    }
+}
@@ -0,0 +1,13 @@
+package study.querydsl.change;
+
+import java.util.List;
+
+/**
+ * 커밋된 변경을 배치 단위로 받는다. 빈으로 등록하면 ChangeEventBus 가 찾아서 호출한다.
+ *
+ * 하나의 소비 스레드에서 순서대로 호출되므로 오래 걸리는 작업은 따로 넘겨서 처리한다.
+ */
+public interface ChangeSubscriber {
+
+    void onChanges(List<EntityChange> changes);
+}
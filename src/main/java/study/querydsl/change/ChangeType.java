@@ -0,0 +1,9 @@
+package study.querydsl.change;
+
+public enum ChangeType {
+    INSERT, UPDATE, DELETE,
+    /**
+     * Querydsl 벌크 update / delete (영향 받은 row 의 id 는 알 수 없다.)
+     */
+    BULK_UPDATE, BULK_DELETE
+}
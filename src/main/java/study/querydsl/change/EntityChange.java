@@ -0,0 +1,46 @@
+package study.querydsl.change;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.lang.Nullable;
+
+import java.io.Serializable;
+
+/**
+ * 커밋된 엔티티 변경 한 건
+ *
+ * 변경된 값은 담지 않는다. 필요한 소비자는 id 로 다시 조회한다.
+ */
+@Getter
+@ToString
+public class EntityChange {
+
+    private final ChangeType type;
+    private final Class<?> entityType;
+    @Nullable
+    private final Serializable id;
+    /**
+     * 벌크 연산으로 변경된 row 수 (엔티티 단위 변경은 1)
+     */
+    private final long affectedRows;
+    /**
+     * 발행 시각 (System.nanoTime, 소비 지연 측정용)
+     */
+    private final long publishedNanos;
+
+    EntityChange(ChangeType type, Class<?> entityType, @Nullable Serializable id, long affectedRows) {
+        this.type = type;
+        this.entityType = entityType;
+        this.id = id;
+        this.affectedRows = affectedRows;
+        this.publishedNanos = System.nanoTime();
+    }
+
+    static EntityChange of(ChangeType type, Class<?> entityType, Serializable id) {
+        return new EntityChange(type, entityType, id, 1);
+    }
+
+    static EntityChange bulk(ChangeType type, Class<?> entityType, long affectedRows) {
+        return new EntityChange(type, entityType, null, affectedRows);
+    }
+}
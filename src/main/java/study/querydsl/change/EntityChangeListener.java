@@ -0,0 +1,55 @@
+package study.querydsl.change;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Hibernate 의 커밋 후(post-commit) insert / update / delete 이벤트를 ChangeEventBus 로 발행한다.
+ *
+ * 롤백된 트랜잭션의 변경은 *CommitFailed 로 들어오며 발행하지 않는다.
+ */
+public class EntityChangeListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final ChangeEventBus changeEventBus;
+
+    public EntityChangeListener(ChangeEventBus changeEventBus) {
+        this.changeEventBus = changeEventBus;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changeEventBus.publish(EntityChange.of(ChangeType.INSERT, event.getPersister().getMappedClass(), event.getId()));
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changeEventBus.publish(EntityChange.of(ChangeType.UPDATE, event.getPersister().getMappedClass(), event.getId()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changeEventBus.publish(EntityChange.of(ChangeType.DELETE, event.getPersister().getMappedClass(), event.getId()));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package study.querydsl.change;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * EntityChangeListener 를 SessionFactory 의 post-commit 이벤트에 등록한다.
+ */
+@Component
+public class EntityChangeListenerRegistrar {
+
+    private final EntityManagerFactory emf;
+    private final ChangeEventBus changeEventBus;
+
+    public EntityChangeListenerRegistrar(EntityManagerFactory emf, ChangeEventBus changeEventBus) {
+        this.emf = emf;
+        this.changeEventBus = changeEventBus;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        EntityChangeListener listener = new EntityChangeListener(changeEventBus);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+}
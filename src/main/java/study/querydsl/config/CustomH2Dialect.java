@@ -0,0 +1,28 @@
+package study.querydsl.config;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * JPQL 에서 윈도우 함수를 쓸 수 있도록 H2Dialect 에 함수를 등록한다.
+ *
+ * JPQL 문법에는 over 절이 없으므로 function('avg_over', m.age, m.team.id) 처럼 호출하면
+ * avg(cast(age as double)) over (partition by team_id) 로 변환된다.
+ * 윈도우 함수는 where 절에서 쓸 수 없으므로 select / order by 절에서만 사용한다.
+ */
+public class CustomH2Dialect extends H2Dialect {
+
+    public CustomH2Dialect() {
+        super();
+        // 정수 컬럼의 avg 는 H2 에서 정수로 잘리므로 double 로 변환해서 계산한다.
+        registerFunction("avg_over", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "avg(cast(?1 as double)) over (partition by ?2)"));
+        registerFunction("max_over", new SQLFunctionTemplate(null, "max(?1) over (partition by ?2)"));
+        registerFunction("min_over", new SQLFunctionTemplate(null, "min(?1) over (partition by ?2)"));
+        registerFunction("count_over", new SQLFunctionTemplate(StandardBasicTypes.LONG, "count(?1) over (partition by ?2)"));
+        registerFunction("rank_over", new SQLFunctionTemplate(StandardBasicTypes.LONG, "rank() over (partition by ?1 order by ?2)"));
+        registerFunction("rank_over_desc", new SQLFunctionTemplate(StandardBasicTypes.LONG, "rank() over (partition by ?1 order by ?2 desc)"));
+        registerFunction("row_number_over", new SQLFunctionTemplate(StandardBasicTypes.LONG, "row_number() over (partition by ?1 order by ?2)"));
+        registerFunction("row_number_over_desc", new SQLFunctionTemplate(StandardBasicTypes.LONG, "row_number() over (partition by ?1 order by ?2 desc)"));
+    }
+}
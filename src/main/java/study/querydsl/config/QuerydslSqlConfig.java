@@ -0,0 +1,27 @@
+package study.querydsl.config;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * querydsl-sql 설정
+ *
+ * SpringConnectionProvider 는 현재 트랜잭션에 묶인 커넥션을 사용하므로 JPA 와 같은 트랜잭션 안에서 동작한다.
+ * (트랜잭션 밖에서 호출하면 예외가 발생한다.)
+ */
+@Configuration
+public class QuerydslSqlConfig {
+
+    @Bean
+    public SQLQueryFactory sqlQueryFactory(DataSource dataSource) {
+        com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(H2Templates.builder().build());
+        configuration.setExceptionTranslator(new SpringExceptionTranslator());
+        return new SQLQueryFactory(configuration, new SpringConnectionProvider(dataSource));
+    }
+}
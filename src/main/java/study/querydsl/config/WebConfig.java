@@ -0,0 +1,39 @@
+package study.querydsl.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.querydsl.controller.support.ConcurrencyLimitInterceptor;
+import study.querydsl.controller.support.DeadlineInterceptor;
+import study.querydsl.controller.support.DeadlineProperties;
+import study.querydsl.controller.support.MemberTeamColumnarHttpMessageConverter;
+import study.querydsl.controller.support.MemberTeamPageHttpMessageConverter;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class WebConfig implements WebMvcConfigurer {
+
+    private final DeadlineInterceptor deadlineInterceptor;
+    private final ConcurrencyLimitInterceptor concurrencyLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // 동시 실행 한도는 핸들러 안(조회 실행 구간)에서 획득하므로 대기 시간도 기한에 포함된다.
+        registry.addInterceptor(deadlineInterceptor);
+        registry.addInterceptor(concurrencyLimitInterceptor);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // 기본 Jackson 컨버터보다 먼저 선택되도록 맨 앞에 등록한다.
+        converters.add(0, new MemberTeamPageHttpMessageConverter());
+        // Accept 헤더로 명시적으로 요청할 때만 선택되도록 맨 뒤에 등록한다.
+        converters.add(new MemberTeamColumnarHttpMessageConverter());
+    }
+}
@@ -3,39 +3,74 @@ package study.querydsl.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.controller.support.ConcurrencyLimit;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.repository.MemberJpaRepository;
-import study.querydsl.repository.MemberRepository;
+import study.querydsl.dto.MemberTeamField;
+import study.querydsl.repository.MemberSearchCoalescer;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
-    private final MemberJpaRepository memberJpaRepository;
-    private final MemberRepository memberRepository;
+    private final MemberSearchCoalescer memberSearchCoalescer;
 
+    @ConcurrencyLimit(name = "members-v1")
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+        return memberSearchCoalescer.search(condition);
     }
 
+    /**
+     * 필요한 필드만 조회 (예: /v1/members?fields=username,age)
+     */
+    @ConcurrencyLimit(name = "members-v1")
+    @GetMapping(value = "/v1/members", params = "fields")
+    public List<Map<String, Object>> searchMemberV1Fields(MemberSearchCondition condition, @RequestParam String fields) {
+        Set<MemberTeamField> memberTeamFields;
+        try {
+            memberTeamFields = MemberTeamField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return memberSearchCoalescer.searchFields(condition, memberTeamFields);
+    }
+
+    @ConcurrencyLimit(name = "members-v2")
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageSimple(condition, pageable);
+        return memberSearchCoalescer.searchPageSimple(condition, pageable);
     }
 
+    // 컨텐츠, count 쿼리를 항상 둘 다 실행하므로 한도를 낮게 시작한다.
+    @ConcurrencyLimit(name = "members-v3", initialLimit = 5, maxLimit = 20)
     @GetMapping("/v3/members")
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplex(condition, pageable);
+        return memberSearchCoalescer.searchPageComplex(condition, pageable);
     }
 
+    @ConcurrencyLimit(name = "members-v4")
     @GetMapping("/v4/members")
     public Page<MemberTeamDto> searchMemberV4(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchPageComplexOptimization(condition, pageable);
+        return memberSearchCoalescer.searchPageComplexOptimization(condition, pageable);
+    }
+
+    /**
+     * 전체 건수 없이 다음 페이지 여부(hasNext)만 응답한다. count 쿼리를 실행하지 않는다.
+     */
+    @ConcurrencyLimit(name = "members-v5")
+    @GetMapping("/v5/members")
+    public Slice<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+        return memberSearchCoalescer.searchSlice(condition, pageable);
     }
 }
@@ -0,0 +1,35 @@
+package study.querydsl.controller.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메서드가 실행하는 DB 조회의 동시 실행 수를 조회 시간에 따라 조절한다. (AIMD)
+ *
+ * 조회 시간이 targetLatencyMillis 이하이면 한도를 조금씩 늘리고, 넘거나 실패하면 줄인다.
+ * 한도를 넘은 조회는 최대 queueSize 개까지 maxWaitMillis 동안 기다리고, 그 외에는 바로 503 으로 거절한다.
+ * (적용 구간은 ConcurrencyLimitInterceptor 참고)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimit {
+
+    /**
+     * 한도를 공유하는 이름, 메트릭 태그로도 사용한다.
+     */
+    String name();
+
+    int initialLimit() default 10;
+
+    int minLimit() default 1;
+
+    int maxLimit() default 50;
+
+    int queueSize() default 20;
+
+    long maxWaitMillis() default 50;
+
+    long targetLatencyMillis() default 200;
+}
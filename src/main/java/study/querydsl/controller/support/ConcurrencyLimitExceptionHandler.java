@@ -0,0 +1,22 @@
+package study.querydsl.controller.support;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.querydsl.repository.support.ConcurrencyLimitExceededException;
+
+/**
+ * 동시 실행 한도를 넘은 요청은 503 과 Retry-After 로 응답한다.
+ */
+@RestControllerAdvice
+public class ConcurrencyLimitExceptionHandler {
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<Void> limitExceeded(ConcurrencyLimitExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.controller.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import study.querydsl.repository.support.AdaptiveConcurrencyLimiter;
+import study.querydsl.repository.support.RequestConcurrencyLimit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link ConcurrencyLimit} 이 선언된 컨트롤러 메서드의 한도를 RequestConcurrencyLimit 에 설정한다.
+ *
+ * 요청 전체에 한도를 걸면 응답 렌더링 시간과 공유 조회를 기다리는 시간까지 응답 시간에 들어가서 DB 가 느리지 않아도 한도가 줄어든다.
+ * 그래서 여기서는 어떤 한도를 쓸지만 정하고, 획득과 응답 시간 측정은 DB 조회를 실행하는 구간(MemberSearchCoalescer)에서 한다.
+ * 한도를 넘은 요청은 ConcurrencyLimitExceptionHandler 가 503 으로 응답한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        ConcurrencyLimit config = ((HandlerMethod) handler).getMethodAnnotation(ConcurrencyLimit.class);
+        if (config == null) {
+            return true;
+        }
+        RequestConcurrencyLimit.bind(limiters.computeIfAbsent(config.name(), name -> register(name, config)));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestConcurrencyLimit.clear();
+    }
+
+    private AdaptiveConcurrencyLimiter register(String name, ConcurrencyLimit config) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config.initialLimit(), config.minLimit(), config.maxLimit(),
+                config.queueSize(), config.maxWaitMillis(), config.targetLatencyMillis());
+        Gauge.builder("member.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Gauge.builder("member.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("member.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
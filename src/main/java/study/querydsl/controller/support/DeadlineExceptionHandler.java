@@ -0,0 +1,38 @@
+package study.querydsl.controller.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.querydsl.repository.support.DeadlineExceededException;
+import study.querydsl.repository.support.RequestDeadline;
+
+/**
+ * 요청 기한 초과를 응답 코드로 바꾼다.
+ *
+ * - 쿼리 실행 전 기한 확인, 공유 조회 대기 시간 초과(DeadlineExceededException) : 504
+ * - JDBC 쿼리 타임아웃 : 서버 설정 기한으로 실행했으면 DB 가 느린 것이므로 503, 클라이언트가 정한 기한이면 504
+ * RequestConcurrencyLimit 은 두 경우 모두 서버 설정 기한으로 실행했을 때만 한도를 줄이므로 클라이언트가 아주 짧은 기한을 보내도 공유 한도가 줄어들지 않는다.
+ */
+@Slf4j
+@RestControllerAdvice
+public class DeadlineExceptionHandler {
+
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    @ExceptionHandler(DeadlineExceededException.class)
+    public void deadlineExceeded(DeadlineExceededException e) {
+        log.info("request deadline exceeded: {}", e.getMessage());
+    }
+
+    @ExceptionHandler({
+            org.springframework.dao.QueryTimeoutException.class,
+            javax.persistence.QueryTimeoutException.class
+    })
+    public ResponseEntity<Void> queryTimeout(RuntimeException e) {
+        boolean clientBound = RequestDeadline.isClientBound();
+        log.info("query timed out under {} deadline: {}", clientBound ? "client" : "server", e.getMessage());
+        return ResponseEntity.status(clientBound ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
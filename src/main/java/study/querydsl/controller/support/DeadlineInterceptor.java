@@ -0,0 +1,56 @@
+package study.querydsl.controller.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import study.querydsl.repository.support.RequestDeadline;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청마다 처리 기한을 정해서 RequestDeadline 에 설정한다.
+ *
+ * 헤더로 받은 값과 엔드포인트 설정 값 중 짧은 쪽을 사용한다. (클라이언트가 설정보다 길게 늘릴 수는 없다.)
+ * 두 값을 따로 기억하므로 클라이언트 기한 때문에 실패한 요청은 과부하로 취급하지 않는다. (DeadlineExceptionHandler)
+ * 서블릿(블로킹 I/O)에서는 클라이언트 연결 종료를 응답을 쓰기 전까지 알 수 없으므로,
+ * 클라이언트 타임아웃보다 짧은 기한을 헤더로 보내서 DB 작업이 먼저 끝나도록 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeadlineInterceptor implements HandlerInterceptor {
+
+    private final DeadlineProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.start(configured(request), requested(request));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    private long configured(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Long endpointMillis = pattern != null ? properties.getEndpoints().get(pattern.toString()) : null;
+        long millis = endpointMillis != null ? endpointMillis : properties.getDefaultMs();
+        return millis > 0 ? millis : Long.MAX_VALUE;
+    }
+
+    private long requested(HttpServletRequest request) {
+        String header = request.getHeader(properties.getHeader());
+        if (header == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            long millis = Long.parseLong(header.trim());
+            return millis > 0 ? millis : Long.MAX_VALUE;
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
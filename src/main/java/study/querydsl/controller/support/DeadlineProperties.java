@@ -0,0 +1,32 @@
+package study.querydsl.controller.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 요청 기한 설정 (querydsl.deadline.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.deadline")
+public class DeadlineProperties {
+
+    /**
+     * 클라이언트가 기한(ms)을 보내는 헤더
+     */
+    private String header = "X-Request-Timeout-Ms";
+
+    /**
+     * 엔드포인트 설정이 없을 때의 기한(ms), 0 이면 기한 없음
+     */
+    private long defaultMs;
+
+    /**
+     * URL 패턴별 기한(ms) (예: "[/v3/members]": 3000)
+     */
+    private Map<String, Long> endpoints = new HashMap<>();
+}
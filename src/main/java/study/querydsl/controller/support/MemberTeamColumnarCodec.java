@@ -0,0 +1,170 @@
+package study.querydsl.controller.support;
+
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MemberTeamDto 목록을 컬럼 단위 바이너리로 인코딩/디코딩한다. (big-endian)
+ *
+ * <pre>
+ * int    magic ("MTC1")
+ * int    rowCount
+ * long[] memberId      (rowCount)
+ * int[]  age           (rowCount)
+ * int    teamCount
+ *        (long teamId, string teamName) * teamCount   팀 사전
+ * int[]  teamIndex     (rowCount, 팀이 없으면 -1)
+ * string[] username    (rowCount)
+ * </pre>
+ * string 은 int 길이(UTF-8 바이트 수, null 이면 -1) + 바이트로 표현한다.
+ *
+ * 디코딩할 때는 외부에서 받은 값을 믿지 않는다. 건수, 길이가 음수이거나 상한(MAX_ROWS, MAX_STRING_BYTES)을 넘거나
+ * 팀 인덱스가 사전 범위를 벗어나면 IOException 을 던진다. (컨버터를 거치면 400 으로 응답한다.)
+ */
+public final class MemberTeamColumnarCodec {
+
+    public static final int MAGIC = 0x4D544331;
+
+    public static final int MAX_ROWS = 1_000_000;
+    public static final int MAX_STRING_BYTES = 64 * 1024;
+
+    private static final int NULL_LENGTH = -1;
+    private static final int NO_TEAM = -1;
+
+    private MemberTeamColumnarCodec() {
+    }
+
+    public static void encode(List<MemberTeamDto> rows, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        int rowCount = rows.size();
+        if (rowCount > MAX_ROWS) {
+            throw new IllegalArgumentException("Too many rows for columnar encoding: " + rowCount);
+        }
+
+        out.writeInt(MAGIC);
+        out.writeInt(rowCount);
+
+        for (MemberTeamDto row : rows) {
+            out.writeLong(row.getMemberId());
+        }
+        for (MemberTeamDto row : rows) {
+            out.writeInt(row.getAge());
+        }
+
+        // 팀 사전을 만들고 행마다 사전 인덱스만 기록한다.
+        Map<Long, Integer> teamIndexes = new LinkedHashMap<>();
+        int[] rowTeamIndexes = new int[rowCount];
+        List<MemberTeamDto> teams = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            MemberTeamDto row = rows.get(i);
+            if (row.getTeamId() == null) {
+                rowTeamIndexes[i] = NO_TEAM;
+                continue;
+            }
+            Integer index = teamIndexes.get(row.getTeamId());
+            if (index == null) {
+                index = teams.size();
+                teamIndexes.put(row.getTeamId(), index);
+                teams.add(row);
+            }
+            rowTeamIndexes[i] = index;
+        }
+
+        out.writeInt(teams.size());
+        for (MemberTeamDto team : teams) {
+            out.writeLong(team.getTeamId());
+            writeString(out, team.getTeamName());
+        }
+        for (int teamIndex : rowTeamIndexes) {
+            out.writeInt(teamIndex);
+        }
+
+        for (MemberTeamDto row : rows) {
+            writeString(out, row.getUsername());
+        }
+        out.flush();
+    }
+
+    public static List<MemberTeamDto> decode(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a member columnar stream");
+        }
+        int rowCount = checkRange(in.readInt(), 0, MAX_ROWS, "row count");
+
+        long[] memberIds = new long[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            memberIds[i] = in.readLong();
+        }
+        int[] ages = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            ages[i] = in.readInt();
+        }
+
+        // 팀 사전은 행에 나온 팀으로만 만들어지므로 행 수보다 많을 수 없다.
+        int teamCount = checkRange(in.readInt(), 0, rowCount, "team count");
+        long[] teamIds = new long[teamCount];
+        String[] teamNames = new String[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            teamIds[i] = in.readLong();
+            teamNames[i] = readString(in);
+        }
+        int[] rowTeamIndexes = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rowTeamIndexes[i] = checkRange(in.readInt(), NO_TEAM, teamCount - 1, "team index");
+        }
+
+        List<MemberTeamDto> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            String username = readString(in);
+            int teamIndex = rowTeamIndexes[i];
+            if (teamIndex == NO_TEAM) {
+                rows.add(new MemberTeamDto(memberIds[i], username, ages[i], null, null));
+            } else {
+                rows.add(new MemberTeamDto(memberIds[i], username, ages[i], teamIds[teamIndex], teamNames[teamIndex]));
+            }
+        }
+        return rows;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String too long for columnar encoding: " + bytes.length + " bytes");
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = checkRange(in.readInt(), NULL_LENGTH, MAX_STRING_BYTES, "string length");
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checkRange(int value, int min, int max, String name) throws IOException {
+        if (value < min || value > max) {
+            throw new IOException("Invalid " + name + " in member columnar stream: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.controller.support;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * List&lt;MemberTeamDto&gt; 를 컬럼 단위 바이너리(application/x-member-columnar)로 주고 받는 컨버터
+ *
+ * 서비스 간 호출에서 Accept: application/x-member-columnar 로 요청하면 선택된다.
+ * 형식은 {@link MemberTeamColumnarCodec} 참고
+ */
+public class MemberTeamColumnarHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<MemberTeamDto>> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-member-columnar";
+    public static final MediaType MEDIA_TYPE = MediaType.valueOf(MEDIA_TYPE_VALUE);
+
+    public MemberTeamColumnarHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return isMemberTeamList(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return isMemberTeamList(type) && canWrite(mediaType);
+    }
+
+    private boolean isMemberTeamList(@Nullable Type type) {
+        if (type == null) {
+            return false;
+        }
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        if (!List.class.isAssignableFrom(resolvableType.toClass())) {
+            return false;
+        }
+        return MemberTeamDto.class.equals(resolvableType.as(List.class).getGeneric(0).resolve());
+    }
+
+    @Override
+    protected void writeInternal(List<MemberTeamDto> rows, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        MemberTeamColumnarCodec.encode(rows, StreamUtils.nonClosing(outputMessage.getBody()));
+    }
+
+    @Override
+    protected List<MemberTeamDto> readInternal(Class<? extends List<MemberTeamDto>> clazz, HttpInputMessage inputMessage) throws IOException {
+        return MemberTeamColumnarCodec.decode(inputMessage.getBody());
+    }
+
+    @Override
+    public List<MemberTeamDto> read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return MemberTeamColumnarCodec.decode(inputMessage.getBody());
+    }
+}
@@ -0,0 +1,148 @@
+package study.querydsl.controller.support;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Page&lt;MemberTeamDto&gt; / Slice&lt;MemberTeamDto&gt; 전용 JSON 컨버터
+ *
+ * 기본 Jackson 컨버터는 PageImpl 의 pageable, sort 객체 그래프까지 리플렉션으로 직렬화한다.
+ * 이 컨버터는 JsonGenerator 로 필요한 필드만 바로 출력한다.
+ * (JsonFactory 는 스레드별 BufferRecycler 로 내부 버퍼를 재사용한다.)
+ *
+ * <pre>
+ * {
+ *   "content": [{"memberId":1,"username":"member1","age":10,"teamId":1,"teamName":"teamA"}, ...],
+ *   "page": {"number":0,"size":20,"numberOfElements":20,"first":true,"last":false,
+ *            "totalElements":100,"totalPages":5}
+ * }
+ * </pre>
+ * Slice 인 경우 totalElements, totalPages 대신 hasNext 를 출력한다.
+ */
+public class MemberTeamPageHttpMessageConverter extends AbstractGenericHttpMessageConverter<Slice<MemberTeamDto>> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public MemberTeamPageHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Slice.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    // 제네릭 타입을 알 수 없는 경우에는 기본 Jackson 컨버터에 맡긴다.
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return isMemberTeamSlice(type) && canWrite(mediaType);
+    }
+
+    private boolean isMemberTeamSlice(@Nullable Type type) {
+        if (type == null) {
+            return false;
+        }
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        if (!Slice.class.isAssignableFrom(resolvableType.toClass())) {
+            return false;
+        }
+        return MemberTeamDto.class.equals(resolvableType.as(Slice.class).getGeneric(0).resolve());
+    }
+
+    @Override
+    protected void writeInternal(Slice<MemberTeamDto> slice, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        // 응답 스트림은 컨테이너가 닫으므로 JsonGenerator 가 닫지 않도록 감싼다.
+        write(slice, StreamUtils.nonClosing(outputMessage.getBody()));
+    }
+
+    /**
+     * 컨트롤러 밖(벤치마크, 테스트)에서도 같은 형식으로 출력할 수 있도록 분리
+     */
+    public static void write(Slice<MemberTeamDto> slice, OutputStream out) throws IOException {
+        try (JsonGenerator gen = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+
+            gen.writeArrayFieldStart("content");
+            for (MemberTeamDto dto : slice.getContent()) {
+                writeMemberTeam(gen, dto);
+            }
+            gen.writeEndArray();
+
+            gen.writeObjectFieldStart("page");
+            gen.writeNumberField("number", slice.getNumber());
+            gen.writeNumberField("size", slice.getSize());
+            gen.writeNumberField("numberOfElements", slice.getNumberOfElements());
+            gen.writeBooleanField("first", slice.isFirst());
+            gen.writeBooleanField("last", slice.isLast());
+            if (slice instanceof Page) {
+                Page<MemberTeamDto> page = (Page<MemberTeamDto>) slice;
+                gen.writeNumberField("totalElements", page.getTotalElements());
+                gen.writeNumberField("totalPages", page.getTotalPages());
+            } else {
+                gen.writeBooleanField("hasNext", slice.hasNext());
+            }
+            gen.writeEndObject();
+
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeMemberTeam(JsonGenerator gen, MemberTeamDto dto) throws IOException {
+        gen.writeStartObject();
+        writeLongField(gen, "memberId", dto.getMemberId());
+        gen.writeStringField("username", dto.getUsername());
+        gen.writeNumberField("age", dto.getAge());
+        writeLongField(gen, "teamId", dto.getTeamId());
+        gen.writeStringField("teamName", dto.getTeamName());
+        gen.writeEndObject();
+    }
+
+    private static void writeLongField(JsonGenerator gen, String name, @Nullable Long value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(name);
+        } else {
+            gen.writeNumberField(name, value);
+        }
+    }
+
+    @Override
+    protected Slice<MemberTeamDto> readInternal(Class<? extends Slice<MemberTeamDto>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading is not supported", inputMessage);
+    }
+
+    @Override
+    public Slice<MemberTeamDto> read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading is not supported", inputMessage);
+    }
+}
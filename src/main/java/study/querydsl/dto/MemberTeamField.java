@@ -0,0 +1,53 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 회원 검색 시 선택해서 조회할 수 있는 필드 (?fields=username,age)
+ */
+@Getter
+public enum MemberTeamField {
+
+    MEMBER_ID("memberId"),
+    USERNAME("username"),
+    AGE("age"),
+    TEAM_ID("teamId"),
+    TEAM_NAME("teamName");
+
+    private final String fieldName;
+
+    MemberTeamField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public static MemberTeamField of(String fieldName) {
+        for (MemberTeamField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown member field: " + fieldName);
+    }
+
+    /**
+     * 콤마로 구분된 필드 목록을 요청 순서대로 변환한다. 비어 있으면 전체 필드
+     */
+    public static Set<MemberTeamField> parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return Collections.unmodifiableSet(EnumSet.allOf(MemberTeamField.class));
+        }
+        Set<MemberTeamField> result = new LinkedHashSet<>();
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .forEach(fieldName -> result.add(of(fieldName)));
+        return result;
+    }
+}
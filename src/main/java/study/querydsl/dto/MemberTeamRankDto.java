@@ -0,0 +1,30 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class MemberTeamRankDto {
+
+    private Long memberId;
+    private String username;
+    private int age;
+    private Long teamId;
+    private String teamName;
+    private Double teamAvgAge;
+    /**
+     * 팀 안에서 나이가 많은 순서 (같은 나이는 같은 순위)
+     */
+    private Long teamAgeRank;
+
+    @QueryProjection
+    public MemberTeamRankDto(Long memberId, String username, int age, Long teamId, String teamName, Double teamAvgAge, Long teamAgeRank) {
+        this.memberId = memberId;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.teamAvgAge = teamAvgAge;
+        this.teamAgeRank = teamAgeRank;
+    }
+}
@@ -9,6 +9,10 @@ import javax.persistence.*;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id","username","age"})
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_age", columnList = "age")
+})
 public class Member {
 
     @Id
@@ -42,7 +46,7 @@ public class Member {
 
     private void changeTeam(Team team) {
         this.team = team;
-        team.getMembers().add(this);
+        team.addMember(this);
     }
 
 
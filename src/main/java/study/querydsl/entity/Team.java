@@ -1,10 +1,14 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @Entity
 @Getter
@@ -20,10 +24,45 @@ public class Team {
 
     private String name;
 
+    /**
+     * 팀 인원이 많을 수 있으므로 컬렉션 전체를 읽지 않도록 EXTRA 로 둔다.
+     * 추가(add)는 초기화 없이 큐에 쌓이고, size() / contains() 는 count 쿼리로 처리된다.
+     * 인원 수, 소속 여부는 쿼리 없이 memberCount, hasMember() 를 사용한다.
+     */
     @OneToMany(mappedBy = "team")
+    @LazyCollection(LazyCollectionOption.EXTRA)
     private List<Member> members = new ArrayList<>();
 
+    /**
+     * DB 값은 TeamMemberCountListener 가 회원 insert / delete / 팀 변경 시 member_count + 1, - 1 로 갱신한다.
+     * 엔티티 flush 로는 쓰지 않으므로 동시에 추가해도 덮어쓰지 않는다.
+     * addMember() 의 증가는 이 영속성 컨텍스트에서 쿼리 없이 보이기 위한 것이다.
+     * 리스너가 컬럼 이름으로 SQL 을 실행하므로 이름을 명명 전략에 맡기지 않는다.
+     */
+    @ColumnDefault("0")
+    @Column(name = "member_count", insertable = false, updatable = false)
+    private int memberCount;
+
     public Team(String name) {
         this.name = name;
     }
+
+    public void addMember(Member member) {
+        members.add(member);
+        memberCount++;
+    }
+
+    /**
+     * 연관관계 주인(Member.team) 쪽으로 확인하므로 members 컬렉션을 읽지 않는다.
+     */
+    public boolean hasMember(Member member) {
+        Team memberTeam = member.getTeam();
+        if (memberTeam == null) {
+            return false;
+        }
+        if (memberTeam == this) {
+            return true;
+        }
+        return id != null && Objects.equals(id, memberTeam.getId());
+    }
 }
@@ -0,0 +1,11 @@
+package study.querydsl.export;
+
+/**
+ * 회원 내보내기에 실패했을 때 발생한다. 이미 만든 세그먼트 파일은 지운다.
+ */
+public class MemberExportException extends RuntimeException {
+
+    public MemberExportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
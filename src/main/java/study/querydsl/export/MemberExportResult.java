@@ -0,0 +1,28 @@
+package study.querydsl.export;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Getter
+@ToString
+public class MemberExportResult {
+
+    private final Path target;
+    private final List<PartitionExport> partitions;
+    private final long bytes;
+    private final long elapsedMillis;
+
+    MemberExportResult(Path target, List<PartitionExport> partitions, long bytes, long elapsedMillis) {
+        this.target = target;
+        this.partitions = partitions;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRows() {
+        return partitions.stream().mapToLong(PartitionExport::getRows).sum();
+    }
+}
@@ -0,0 +1,241 @@
+package study.querydsl.export;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.sql.Configuration;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.StatementOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static study.querydsl.sql.SMember.member;
+import static study.querydsl.sql.STeam.team;
+
+/**
+ * member 테이블 전체를 팀 이름과 함께 gzip CSV 로 내보낸다.
+ *
+ * 1. member.id 범위(min ~ max)를 partitions 개로 나눈다.
+ * 2. 파티션마다 ForkJoinPool 의 스레드에서 별도 커넥션을 얻어 id 순서로 커서(iterate)를 열고,
+ *    읽는 대로 자기 세그먼트 파일(target.partN.gz)에 쓴다. 엔티티를 만들지 않고 한 번에 fetch-size 건만 메모리에 둔다.
+ * 3. 세그먼트를 파티션 순서대로 FileChannel.transferTo 로 이어 붙인다.
+ *    gzip 멤버를 이어 붙인 파일은 그 자체로 올바른 gzip 이므로 압축을 다시 풀고 묶지 않는다.
+ *
+ * JPA 영속성 컨텍스트, 스프링 트랜잭션을 사용하지 않으므로 트랜잭션 밖에서 호출한다.
+ * 파티션마다 커넥션을 하나씩 쓰므로 partitions 는 커넥션 풀 크기보다 작게 잡는다.
+ */
+@Slf4j
+@Component
+public class MemberExporter {
+
+    static final String HEADER = "member_id,username,age,team_id,team_name";
+
+    private static final Expression<?>[] COLUMNS = {member.memberId, member.username, member.age, team.teamId, team.name};
+
+    private final DataSource dataSource;
+    private final Configuration configuration;
+    private final int defaultPartitions;
+    private final int fetchSize;
+
+    public MemberExporter(DataSource dataSource, SQLQueryFactory sqlQueryFactory,
+                          @Value("${querydsl.export.partitions:4}") int defaultPartitions,
+                          @Value("${querydsl.export.fetch-size:1000}") int fetchSize) {
+        this.dataSource = dataSource;
+        this.configuration = sqlQueryFactory.getConfiguration();
+        this.defaultPartitions = defaultPartitions;
+        this.fetchSize = fetchSize;
+    }
+
+    public MemberExportResult export(Path target) {
+        return export(target, defaultPartitions);
+    }
+
+    public MemberExportResult export(Path target, int partitions) {
+        Assert.isTrue(partitions > 0, "Partitions must be positive!");
+        long start = System.nanoTime();
+        List<Range> ranges = split(partitions);
+
+        List<PartitionExport> results = new ArrayList<>();
+        List<Path> segments = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, ranges.size()));
+        try {
+            List<Callable<PartitionExport>> tasks = new ArrayList<>();
+            for (Range range : ranges) {
+                Path segment = target.resolveSibling(target.getFileName() + ".part" + range.partition);
+                segments.add(segment);
+                tasks.add(() -> exportPartition(range, segment));
+            }
+            for (Future<PartitionExport> future : pool.invokeAll(tasks)) {
+                PartitionExport result = future.get();
+                log.info("member export partition {} : {} rows, {} bytes, {} ms ({} rows/s)",
+                        result.getPartition(), result.getRows(), result.getBytes(), result.getElapsedMillis(),
+                        Math.round(result.getRowsPerSecond()));
+                results.add(result);
+            }
+            long bytes = concat(segments, target);
+            return new MemberExportResult(target, results, bytes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (ExecutionException e) {
+            throw new MemberExportException("member export failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MemberExportException("member export interrupted", e);
+        } catch (IOException e) {
+            throw new MemberExportException("member export failed", e);
+        } finally {
+            pool.shutdownNow();
+            deleteQuietly(segments);
+        }
+    }
+
+    /**
+     * 회원이 없어도 헤더만 있는 파일을 만들 수 있도록 최소 한 개의 파티션을 반환한다.
+     */
+    private List<Range> split(int partitions) {
+        Tuple minMax;
+        try (Connection connection = dataSource.getConnection()) {
+            minMax = new SQLQuery<Void>(connection, configuration)
+                    .select(member.memberId.min(), member.memberId.max())
+                    .from(member)
+                    .fetchOne();
+        } catch (SQLException e) {
+            throw new MemberExportException("member id range query failed", e);
+        }
+        Long minId = minMax == null ? null : minMax.get(member.memberId.min());
+        Long maxId = minMax == null ? null : minMax.get(member.memberId.max());
+        List<Range> ranges = new ArrayList<>();
+        if (minId == null || maxId == null) {
+            ranges.add(new Range(0, 0, -1));
+            return ranges;
+        }
+
+        long span = maxId - minId + 1;
+        long size = (span + partitions - 1) / partitions;
+        for (int i = 0; i < partitions; i++) {
+            long fromId = minId + i * size;
+            if (fromId > maxId) {
+                break;
+            }
+            ranges.add(new Range(i, fromId, Math.min(maxId, fromId + size - 1)));
+        }
+        return ranges;
+    }
+
+    private PartitionExport exportPartition(Range range, Path segment) throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection();
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new GZIPOutputStream(Files.newOutputStream(segment), 64 * 1024), StandardCharsets.UTF_8))) {
+            connection.setReadOnly(true);
+            if (range.partition == 0) {
+                writer.write(HEADER);
+                writer.write('\n');
+            }
+
+            SQLQuery<Tuple> query = new SQLQuery<Void>(connection, configuration)
+                    .select(COLUMNS)
+                    .from(member)
+                    .leftJoin(team).on(member.teamId.eq(team.teamId))
+                    .where(member.memberId.between(range.fromId, range.toId))
+                    .orderBy(member.memberId.asc());
+            query.setStatementOptions(StatementOptions.builder().setFetchSize(fetchSize).build());
+
+            try (CloseableIterator<Tuple> iterator = query.iterate()) {
+                while (iterator.hasNext()) {
+                    writeRow(writer, iterator.next());
+                    rows++;
+                }
+            }
+        }
+        return new PartitionExport(range.partition, range.fromId, range.toId, rows, Files.size(segment),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void writeRow(Writer writer, Tuple row) throws IOException {
+        writer.write(String.valueOf(row.get(member.memberId)));
+        writer.write(',');
+        writer.write(csv(row.get(member.username)));
+        writer.write(',');
+        writer.write(String.valueOf(row.get(member.age)));
+        writer.write(',');
+        Long teamId = row.get(team.teamId);
+        writer.write(teamId == null ? "" : String.valueOf(teamId));
+        writer.write(',');
+        writer.write(csv(row.get(team.name)));
+        writer.write('\n');
+    }
+
+    private long concat(List<Path> segments, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path segment : segments) {
+                try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    // transferTo 는 요청한 길이보다 적게 옮길 수 있다.
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            }
+            return out.size();
+        }
+    }
+
+    private void deleteQuietly(List<Path> segments) {
+        for (Path segment : segments) {
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                log.warn("failed to delete export segment {}", segment, e);
+            }
+        }
+    }
+
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static class Range {
+
+        private final int partition;
+        private final long fromId;
+        private final long toId;
+
+        Range(int partition, long fromId, long toId) {
+            this.partition = partition;
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+    }
+}
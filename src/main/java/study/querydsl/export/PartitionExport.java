@@ -0,0 +1,32 @@
+package study.querydsl.export;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 파티션(member.id 범위) 하나의 내보내기 결과
+ */
+@Getter
+@ToString
+public class PartitionExport {
+
+    private final int partition;
+    private final long fromId;
+    private final long toId;
+    private final long rows;
+    private final long bytes;
+    private final long elapsedMillis;
+
+    PartitionExport(int partition, long fromId, long toId, long rows, long bytes, long elapsedMillis) {
+        this.partition = partition;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+    }
+}
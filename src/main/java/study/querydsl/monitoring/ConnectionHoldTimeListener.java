@@ -0,0 +1,107 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 로 감싼 DataSource 에서 커넥션 획득 대기 시간과 점유 시간을 기록한다.
+ *
+ * - jdbc.connection.acquire : 풀에서 커넥션을 얻기까지 걸린 시간
+ * - jdbc.connection.hold    : 커넥션을 얻은 뒤 반납(close)까지의 시간, 요청 엔드포인트별
+ * - jdbc.connection.held    : 현재 점유 중인 커넥션 수
+ * 풀 포화도는 actuator 가 등록하는 hikaricp.connections.* 메트릭으로 확인한다.
+ *
+ * 점유 시간이 long-hold-threshold-ms 를 넘으면 경고 로그를 남기고,
+ * capture-stack 이 켜져 있으면 커넥션을 얻은 위치의 스택 트레이스를 함께 남긴다.
+ */
+@Slf4j
+@Component
+public class ConnectionHoldTimeListener extends JdbcEventListener {
+
+    private static final String NO_ENDPOINT = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final long longHoldThresholdNanos;
+    private final boolean captureStack;
+
+    private final Map<ConnectionInformation, Hold> holds = new ConcurrentHashMap<>();
+    private final Timer acquireTimer;
+
+    public ConnectionHoldTimeListener(MeterRegistry meterRegistry,
+                                      @Value("${querydsl.jdbc.long-hold-threshold-ms:1000}") long longHoldThresholdMillis,
+                                      @Value("${querydsl.jdbc.capture-stack:false}") boolean captureStack) {
+        this.meterRegistry = meterRegistry;
+        this.longHoldThresholdNanos = TimeUnit.MILLISECONDS.toNanos(longHoldThresholdMillis);
+        this.captureStack = captureStack;
+        this.acquireTimer = Timer.builder("jdbc.connection.acquire")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("jdbc.connection.held", Tags.empty(), holds);
+    }
+
+    @Override
+    public void onAfterGetConnection(ConnectionInformation connectionInformation, SQLException e) {
+        if (e != null) {
+            return;
+        }
+        acquireTimer.record(connectionInformation.getTimeToGetConnectionNs(), TimeUnit.NANOSECONDS);
+        Throwable acquiredAt = captureStack ? new Throwable("connection acquired here") : null;
+        holds.put(connectionInformation, new Hold(System.nanoTime(), currentEndpoint(), acquiredAt));
+    }
+
+    @Override
+    public void onAfterConnectionClose(ConnectionInformation connectionInformation, SQLException e) {
+        Hold hold = holds.remove(connectionInformation);
+        if (hold == null) {
+            return;
+        }
+        long holdNanos = System.nanoTime() - hold.startNanos;
+        Timer.builder("jdbc.connection.hold")
+                .tag("endpoint", hold.endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(holdNanos, TimeUnit.NANOSECONDS);
+
+        if (holdNanos > longHoldThresholdNanos) {
+            log.warn("connection held for {} ms (endpoint={})",
+                    Duration.ofNanos(holdNanos).toMillis(), hold.endpoint, hold.acquiredAt);
+        }
+    }
+
+    private String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NO_ENDPOINT;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : NO_ENDPOINT;
+    }
+
+    private static class Hold {
+
+        private final long startNanos;
+        private final String endpoint;
+        private final Throwable acquiredAt;
+
+        Hold(long startNanos, String endpoint, Throwable acquiredAt) {
+            this.startNanos = startNanos;
+            this.endpoint = endpoint;
+            this.acquiredAt = acquiredAt;
+        }
+    }
+}
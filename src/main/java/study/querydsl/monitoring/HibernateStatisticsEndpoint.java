@@ -0,0 +1,35 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET    /actuator/hibernatestats : 현재 윈도우와 직전 윈도우 통계
+ * DELETE /actuator/hibernatestats : 통계를 초기화하고 새 윈도우를 수집한다.
+ */
+@Component
+@Endpoint(id = "hibernatestats")
+@RequiredArgsConstructor
+public class HibernateStatisticsEndpoint {
+
+    private final HibernateStatisticsSampler sampler;
+
+    @ReadOperation
+    public Map<String, HibernateStatisticsSnapshot> statistics() {
+        Map<String, HibernateStatisticsSnapshot> result = new LinkedHashMap<>();
+        result.put("current", sampler.current());
+        result.put("lastWindow", sampler.lastWindow());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sampler.reset();
+    }
+}
@@ -0,0 +1,77 @@
+package study.querydsl.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hibernate SessionFactory 통계를 윈도우 단위로 샘플링한다.
+ *
+ * 통계 수집은 모든 세션/쿼리마다 카운터를 갱신하므로 항상 켜두지 않고,
+ * 윈도우(window-ms)가 끝날 때마다 sample-rate 확률로 다음 윈도우의 수집 여부를 정한다.
+ * 윈도우가 끝나면 스냅샷을 남기고 통계를 초기화한다.
+ */
+@Slf4j
+@Component
+public class HibernateStatisticsSampler {
+
+    private final Statistics statistics;
+    private final double sampleRate;
+
+    private volatile HibernateStatisticsSnapshot lastWindow;
+
+    public HibernateStatisticsSampler(EntityManagerFactory emf,
+                                      @Value("${querydsl.hibernate-stats.sample-rate:0.1}") double sampleRate) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        this.sampleRate = sampleRate;
+    }
+
+    @PostConstruct
+    public void init() {
+        startWindow(shouldSample());
+    }
+
+    @Scheduled(fixedDelayString = "${querydsl.hibernate-stats.window-ms:60000}",
+            initialDelayString = "${querydsl.hibernate-stats.window-ms:60000}")
+    public void rollWindow() {
+        if (statistics.isStatisticsEnabled()) {
+            HibernateStatisticsSnapshot snapshot = current();
+            lastWindow = snapshot;
+            log.info("hibernate statistics window: queries={}, planCacheHit={}, planCacheMiss={}, flushes={}, entityFetches={}, collectionFetches={}",
+                    snapshot.getQueryExecutionCount(), snapshot.getQueryPlanCacheHitCount(), snapshot.getQueryPlanCacheMissCount(),
+                    snapshot.getFlushCount(), snapshot.getEntityFetchCount(), snapshot.getCollectionFetchCount());
+        }
+        startWindow(shouldSample());
+    }
+
+    /**
+     * 현재 윈도우를 버리고 새 윈도우를 시작한다. 수동으로 리셋하면 해당 윈도우는 항상 수집한다.
+     */
+    public void reset() {
+        startWindow(true);
+    }
+
+    public HibernateStatisticsSnapshot current() {
+        return HibernateStatisticsSnapshot.of(statistics);
+    }
+
+    public HibernateStatisticsSnapshot lastWindow() {
+        return lastWindow;
+    }
+
+    private void startWindow(boolean sampled) {
+        statistics.clear();
+        statistics.setStatisticsEnabled(sampled);
+    }
+
+    private boolean shouldSample() {
+        return ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
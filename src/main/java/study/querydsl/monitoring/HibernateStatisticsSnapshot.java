@@ -0,0 +1,103 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+import lombok.Value;
+import org.hibernate.stat.CollectionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 한 윈도우 동안의 Hibernate 통계
+ * entityFetchCount, collectionFetchCount 는 지연 로딩으로 추가 조회된 횟수이므로 N+1 여부를 확인할 수 있다.
+ */
+@Getter
+public class HibernateStatisticsSnapshot {
+
+    private final boolean sampled;
+    private final Instant windowStart;
+    private final Instant capturedAt;
+
+    private final long queryExecutionCount;
+    private final long queryExecutionMaxTime;
+    private final long queryPlanCacheHitCount;
+    private final long queryPlanCacheMissCount;
+    private final long flushCount;
+    private final long prepareStatementCount;
+    private final long entityLoadCount;
+    private final long entityFetchCount;
+    private final long collectionLoadCount;
+    private final long collectionFetchCount;
+    private final long secondLevelCacheHitCount;
+    private final long secondLevelCacheMissCount;
+    private final long secondLevelCachePutCount;
+
+    private final List<QueryStat> queries = new ArrayList<>();
+    private final List<FetchStat> entities = new ArrayList<>();
+    private final List<FetchStat> collections = new ArrayList<>();
+
+    private HibernateStatisticsSnapshot(Statistics statistics) {
+        this.sampled = statistics.isStatisticsEnabled();
+        this.windowStart = Instant.ofEpochMilli(statistics.getStartTime());
+        this.capturedAt = Instant.now();
+
+        this.queryExecutionCount = statistics.getQueryExecutionCount();
+        this.queryExecutionMaxTime = statistics.getQueryExecutionMaxTime();
+        this.queryPlanCacheHitCount = statistics.getQueryPlanCacheHitCount();
+        this.queryPlanCacheMissCount = statistics.getQueryPlanCacheMissCount();
+        this.flushCount = statistics.getFlushCount();
+        this.prepareStatementCount = statistics.getPrepareStatementCount();
+        this.entityLoadCount = statistics.getEntityLoadCount();
+        this.entityFetchCount = statistics.getEntityFetchCount();
+        this.collectionLoadCount = statistics.getCollectionLoadCount();
+        this.collectionFetchCount = statistics.getCollectionFetchCount();
+        this.secondLevelCacheHitCount = statistics.getSecondLevelCacheHitCount();
+        this.secondLevelCacheMissCount = statistics.getSecondLevelCacheMissCount();
+        this.secondLevelCachePutCount = statistics.getSecondLevelCachePutCount();
+
+        for (String query : statistics.getQueries()) {
+            QueryStatistics stat = statistics.getQueryStatistics(query);
+            queries.add(new QueryStat(query, stat.getExecutionCount(), stat.getExecutionAvgTime(),
+                    stat.getExecutionMaxTime(), stat.getExecutionRowCount()));
+        }
+        queries.sort(Comparator.comparingLong(QueryStat::getTotalTime).reversed());
+
+        for (String entityName : statistics.getEntityNames()) {
+            EntityStatistics stat = statistics.getEntityStatistics(entityName);
+            entities.add(new FetchStat(entityName, stat.getLoadCount(), stat.getFetchCount()));
+        }
+        for (String role : statistics.getCollectionRoleNames()) {
+            CollectionStatistics stat = statistics.getCollectionStatistics(role);
+            collections.add(new FetchStat(role, stat.getLoadCount(), stat.getFetchCount()));
+        }
+    }
+
+    public static HibernateStatisticsSnapshot of(Statistics statistics) {
+        return new HibernateStatisticsSnapshot(statistics);
+    }
+
+    @Value
+    public static class QueryStat {
+        String query;
+        long executionCount;
+        long executionAvgTime;
+        long executionMaxTime;
+        long executionRowCount;
+
+        public long getTotalTime() {
+            return executionCount * executionAvgTime;
+        }
+    }
+
+    @Value
+    public static class FetchStat {
+        String name;
+        long loadCount;
+        long fetchCount;
+    }
+}
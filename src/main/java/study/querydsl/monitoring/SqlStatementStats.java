@@ -0,0 +1,71 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL 문장별 추적 집계
+ * sampled 는 표본으로 뽑힌 실행 수이고, slow / error 는 표본과 관계없이 항상 기록한 실행 수다.
+ * estimatedExecutions 는 sampled 를 표본 비율로 나눈 추정치다.
+ */
+@Getter
+public class SqlStatementStats {
+
+    private final String sql;
+    private final double sampleRate;
+    private long sampled;
+    private long slow;
+    private long error;
+    private long totalNanos;
+    private long maxNanos;
+
+    SqlStatementStats(String sql, double sampleRate) {
+        this.sql = sql;
+        this.sampleRate = sampleRate;
+    }
+
+    SqlStatementStats(SqlStatementStats source) {
+        this.sql = source.sql;
+        this.sampleRate = source.sampleRate;
+        this.sampled = source.sampled;
+        this.slow = source.slow;
+        this.error = source.error;
+        this.totalNanos = source.totalNanos;
+        this.maxNanos = source.maxNanos;
+    }
+
+    void add(SqlTrace trace) {
+        switch (trace.getReason()) {
+            case SAMPLED:
+                sampled++;
+                break;
+            case SLOW:
+                slow++;
+                break;
+            case ERROR:
+                error++;
+                break;
+        }
+        totalNanos += trace.getElapsedNanos();
+        maxNanos = Math.max(maxNanos, trace.getElapsedNanos());
+    }
+
+    public long getTraced() {
+        return sampled + slow + error;
+    }
+
+    public double getMeanMillis() {
+        long traced = getTraced();
+        return traced == 0 ? 0 : (double) totalNanos / traced / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxMillis() {
+        return (double) maxNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getEstimatedExecutions() {
+        long estimated = sampleRate > 0 ? Math.round(sampled / sampleRate) : 0;
+        return estimated + slow + error;
+    }
+}
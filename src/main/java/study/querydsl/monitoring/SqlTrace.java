@@ -0,0 +1,25 @@
+package study.querydsl.monitoring;
+
+import lombok.Getter;
+
+/**
+ * 추적 대상으로 선택된 SQL 실행 1건
+ * 실행한 스레드에서 만들어서 버퍼에 넣기만 하므로 SQL 정규화는 집계 스레드에서 한다.
+ */
+@Getter
+public class SqlTrace {
+
+    public enum Reason {
+        SAMPLED, SLOW, ERROR
+    }
+
+    private final String sql;
+    private final long elapsedNanos;
+    private final Reason reason;
+
+    public SqlTrace(String sql, long elapsedNanos, Reason reason) {
+        this.sql = sql;
+        this.elapsedNanos = elapsedNanos;
+        this.reason = reason;
+    }
+}
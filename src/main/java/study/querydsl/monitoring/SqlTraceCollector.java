@@ -0,0 +1,198 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.support.BoundedRingBuffer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * SQL 실행 중 일부만 골라서 링 버퍼에 넣고, 집계 스레드 하나가 SQL 문장별로 모은다.
+ *
+ * - 실패한 실행, slow-threshold-ms 를 넘은 실행은 항상 기록한다.
+ * - 나머지는 sample-rate 비율로만 기록한다. (0 이면 느린/실패한 실행만)
+ * SQL 을 실행한 스레드는 판단과 버퍼 삽입만 하고 로그를 남기거나 기다리지 않는다.
+ * 버퍼가 가득 차면 기록을 버리고 sql.trace.dropped 를 올린다.
+ * 문장 수는 max-statements 개까지만 따로 집계하고 나머지는 (other) 로 합친다.
+ * 버퍼가 비면 집계 스레드는 시간 제한 없이 잠들고, 기록하는 쪽이 집계 스레드가 잠들어 있을 때만 깨운다. (ChangeEventBus 와 같은 방식)
+ */
+@Slf4j
+@Component
+public class SqlTraceCollector {
+
+    static final String OTHER = "(other)";
+
+    private static final int DRAIN_BATCH_SIZE = 1024;
+
+    private final BoundedRingBuffer<SqlTrace> buffer;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+
+    private final Counter recorded;
+    private final Counter dropped;
+
+    // 집계 스레드만 수정하고, 조회는 같은 락으로 복사한다.
+    private final Map<String, SqlStatementStats> statements = new HashMap<>();
+
+    private volatile boolean running;
+    // 집계 스레드가 잠들려는 중이면 true, 기록하는 쪽은 이때만 깨운다.
+    private volatile boolean aggregatorWaiting;
+    private volatile Thread aggregator;
+
+    public SqlTraceCollector(MeterRegistry meterRegistry,
+                             @Value("${querydsl.sql-trace.sample-rate:0.01}") double sampleRate,
+                             @Value("${querydsl.sql-trace.slow-threshold-ms:100}") long slowThresholdMillis,
+                             @Value("${querydsl.sql-trace.buffer-size:8192}") int bufferSize,
+                             @Value("${querydsl.sql-trace.max-statements:500}") int maxStatements) {
+        this.buffer = new BoundedRingBuffer<>(bufferSize);
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.maxStatements = maxStatements;
+        this.recorded = meterRegistry.counter("sql.trace.recorded");
+        this.dropped = meterRegistry.counter("sql.trace.dropped");
+        meterRegistry.gauge("sql.trace.pending", buffer, BoundedRingBuffer::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        aggregator = new Thread(this::aggregateLoop, "sql-trace-aggregator");
+        aggregator.setDaemon(true);
+        aggregator.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(aggregator);
+        aggregator.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * SQL 을 실행한 스레드에서 호출한다.
+     */
+    public void onExecute(String sql, long elapsedNanos, SQLException e) {
+        SqlTrace.Reason reason;
+        if (e != null) {
+            reason = SqlTrace.Reason.ERROR;
+        } else if (elapsedNanos >= slowThresholdNanos) {
+            reason = SqlTrace.Reason.SLOW;
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            reason = SqlTrace.Reason.SAMPLED;
+        } else {
+            return;
+        }
+
+        if (buffer.offer(new SqlTrace(sql, elapsedNanos, reason))) {
+            recorded.increment();
+            if (aggregatorWaiting) {
+                LockSupport.unpark(aggregator);
+            }
+        } else {
+            dropped.increment();
+        }
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    public long getDroppedCount() {
+        return (long) dropped.count();
+    }
+
+    /**
+     * 누적 실행 시간이 긴 문장부터 반환한다.
+     */
+    public List<SqlStatementStats> statements() {
+        List<SqlStatementStats> result = new ArrayList<>();
+        synchronized (statements) {
+            for (SqlStatementStats stats : statements.values()) {
+                result.add(new SqlStatementStats(stats));
+            }
+        }
+        result.sort(Comparator.comparingLong(SqlStatementStats::getTotalNanos).reversed());
+        return result;
+    }
+
+    public void reset() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    /**
+     * 버퍼에 쌓인 기록을 집계한다. 집계 스레드가 호출하며, 테스트에서는 직접 호출한다.
+     */
+    int aggregatePending() {
+        List<SqlTrace> batch = new ArrayList<>();
+        buffer.drain(batch::add, DRAIN_BATCH_SIZE);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        synchronized (statements) {
+            for (SqlTrace trace : batch) {
+                statsOf(normalize(trace.getSql())).add(trace);
+            }
+        }
+        return batch.size();
+    }
+
+    private void aggregateLoop() {
+        while (running || !buffer.isEmpty()) {
+            try {
+                if (aggregatePending() == 0) {
+                    // 표시한 뒤에 버퍼를 다시 확인한다. 표시 전에 들어온 기록은 여기서 보이고,
+                    // 표시 후에 들어온 기록은 기록한 쪽이 unpark 하므로 깨어나지 못하는 경우가 없다.
+                    aggregatorWaiting = true;
+                    if (running && buffer.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    aggregatorWaiting = false;
+                }
+            } catch (RuntimeException e) {
+                log.error("sql trace aggregation failed", e);
+            }
+        }
+    }
+
+    private SqlStatementStats statsOf(String sql) {
+        SqlStatementStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String key = statements.size() < maxStatements ? sql : OTHER;
+        return statements.computeIfAbsent(key, k -> new SqlStatementStats(k, sampleRate));
+    }
+
+    // use_sql_comments 로 붙는 /* ... */ 주석을 제거하고 공백을 하나로 합친다.
+    static String normalize(String sql) {
+        String result = sql == null ? "" : sql.trim();
+        while (result.startsWith("/*")) {
+            int end = result.indexOf("*/");
+            if (end < 0) {
+                return "";
+            }
+            result = result.substring(end + 2).trim();
+        }
+        return result.replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET    /actuator/sqltrace : SQL 문장별 추적 집계 (누적 실행 시간 순)
+ * DELETE /actuator/sqltrace : 집계를 초기화한다.
+ */
+@Component
+@Endpoint(id = "sqltrace")
+@RequiredArgsConstructor
+public class SqlTraceEndpoint {
+
+    private final SqlTraceCollector collector;
+
+    @ReadOperation
+    public Map<String, Object> statements() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("sampleRate", collector.getSampleRate());
+        result.put("slowThresholdMs", collector.getSlowThresholdMillis());
+        result.put("dropped", collector.getDroppedCount());
+        result.put("statements", collector.statements());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        collector.reset();
+    }
+}
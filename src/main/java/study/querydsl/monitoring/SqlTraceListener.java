@@ -0,0 +1,24 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 로 감싼 DataSource 의 모든 실행을 SqlTraceCollector 에 넘긴다.
+ * 바인딩 값이 들어간 SQL(getSqlWithValues)이 아니라 ? 가 남은 SQL 을 넘겨서 문장 수가 늘어나지 않게 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlTraceListener extends JdbcEventListener {
+
+    private final SqlTraceCollector collector;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        collector.onExecute(statementInformation.getSql(), timeElapsedNanos, e);
+    }
+}
@@ -4,9 +4,12 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
 
 import javax.persistence.EntityManager;
 import java.util.List;
@@ -15,6 +18,7 @@ import java.util.Optional;
 import static study.querydsl.entity.QMember.member;
 
 @Repository
+@Transactional(readOnly = true)
 public class MemberDslRepository {
 
     private EntityManager em;
@@ -22,9 +26,10 @@ public class MemberDslRepository {
 
     public MemberDslRepository(EntityManager em) {
         this.em = em;
-        queryFactory = new JPAQueryFactory(em);
+        queryFactory = new DeadlineJPAQueryFactory(em);
     }
 
+    @Transactional
     public void save(Member member) {
         em.persist(member);
     }
@@ -44,8 +49,11 @@ public class MemberDslRepository {
     }
 
     public List<Member> findAll() {
+        // 전체 조회 결과는 수정하지 않으므로 스냅샷을 만들지 않는다.
+        // 호출한 쪽의 쓰기 트랜잭션에서 저장한 회원도 보이도록 flush 모드는 바꾸지 않는다.
         return queryFactory
                 .selectFrom(member)
+                .setHint(QueryHints.READ_ONLY, true)
                 .fetch();
     }
 
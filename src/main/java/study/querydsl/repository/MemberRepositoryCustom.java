@@ -2,10 +2,15 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
+import study.querydsl.dto.MemberTeamRankDto;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface MemberRepositoryCustom {
 
@@ -13,4 +18,8 @@ public interface MemberRepositoryCustom {
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplexOptimization(MemberSearchCondition condition, Pageable pageable);
+    List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberTeamField> fields);
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable);
+    List<MemberTeamRankDto> searchTeamAgeRank(MemberSearchCondition condition);
+    List<MemberTeamDto> searchOlderThanTeamAverage();
 }
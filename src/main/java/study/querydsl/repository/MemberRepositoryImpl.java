@@ -1,31 +1,48 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
+import study.querydsl.dto.MemberTeamRankDto;
 import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
+import study.querydsl.dto.QMemberTeamRankDto;
+import study.querydsl.repository.support.CountQueryDeriver;
+import study.querydsl.repository.support.Slices;
+import study.querydsl.repository.support.WindowFunctions;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
 
     public MemberRepositoryImpl(EntityManager em) {
-        this.queryFactory = new JPAQueryFactory(em);
+        this.em = em;
+        this.queryFactory = new DeadlineJPAQueryFactory(em);
     }
 
     @Override
@@ -95,7 +112,35 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> contents = queryFactory
+        JPAQuery<MemberTeamDto> contentQuery = searchQuery(condition);
+        List<MemberTeamDto> contents = contentQuery
+                .offset(pageable.getOffset())   //
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        // count 쿼리는 컨텐츠 쿼리에서 만든다. (프로젝션, 조건에서 쓰지 않는 team left join 제거, count(member.id))
+        long total = CountQueryDeriver.fetchCount(em, contentQuery);
+
+        return new PageImpl<>(contents, pageable, total);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplexOptimization(MemberSearchCondition condition, Pageable pageable) {
+        JPAQuery<MemberTeamDto> contentQuery = searchQuery(condition);
+        List<MemberTeamDto> contents = contentQuery
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        // count 쿼리가 생략 가능한 경우 생략해서 처리
+        // 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
+        // 마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함)
+        // 위 상황일때 count 쿼리를 실행하지 않는다.
+        return PageableExecutionUtils.getPage(contents, pageable, () -> CountQueryDeriver.fetchCount(em, contentQuery));
+    }
+
+    private JPAQuery<MemberTeamDto> searchQuery(MemberSearchCondition condition) {
+        return queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
                         member.username,
@@ -110,29 +155,68 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLog(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())   //
-                .limit(pageable.getPageSize())
-                .fetch();
+                );
+    }
 
-        // count 쿼리를 최적화 하기 위해 따로 쿼리를 실행한다.
-        long total = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
+    /**
+     * 요청한 필드만 조회한다.
+     * team 조인은 teamName 필드나 teamName 조건이 있을 때만 추가한다. (teamId 는 member 의 FK 로 조회)
+     */
+    @Override
+    public List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberTeamField> fields) {
+        Map<MemberTeamField, Path<?>> paths = new LinkedHashMap<>();
+        for (MemberTeamField field : fields) {
+            paths.put(field, pathOf(field));
+        }
+
+        JPAQuery<Tuple> query = queryFactory
+                .select(new LinkedHashSet<>(paths.values()).toArray(new Expression<?>[0]))
+                .from(member);
+        if (fields.contains(MemberTeamField.TEAM_NAME) || StringUtils.hasText(condition.getTeamName())) {
+            query.leftJoin(member.team, team);
+        }
+        List<Tuple> tuples = query
+                .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLog(condition.getAgeLoe())
                 )
-                .fetchCount();
+                .fetch();
 
-        return new PageImpl<>(contents, pageable, total);
+        List<Map<String, Object>> result = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (Map.Entry<MemberTeamField, Path<?>> entry : paths.entrySet()) {
+                row.put(entry.getKey().getFieldName(), tuple.get(entry.getValue()));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    private Path<?> pathOf(MemberTeamField field) {
+        switch (field) {
+            case MEMBER_ID:
+                return member.id;
+            case USERNAME:
+                return member.username;
+            case AGE:
+                return member.age;
+            case TEAM_ID:
+                return member.team.id;
+            case TEAM_NAME:
+                return team.name;
+            default:
+                throw new IllegalArgumentException("Unknown member field: " + field);
+        }
     }
 
+    /**
+     * 전체 건수가 필요 없는 무한 스크롤용. count 쿼리 없이 한 건 더 조회해서 다음 페이지 여부를 판단한다.
+     * offset 페이징에서 페이지 간 순서가 유지되도록 member.id 로 정렬한다.
+     */
     @Override
-    public Page<MemberTeamDto> searchPageComplexOptimization(MemberSearchCondition condition, Pageable pageable) {
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
         List<MemberTeamDto> contents = queryFactory
                 .select(new QMemberTeamDto(
                         member.id,
@@ -149,26 +233,72 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
                         ageGoe(condition.getAgeGoe()),
                         ageLog(condition.getAgeLoe())
                 )
+                .orderBy(member.id.asc())
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
+                .limit(Slices.limitOf(pageable))
                 .fetch();
 
-        // count 쿼리를 최적화 하기 위해 따로 쿼리를 실행한다.
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
+        return Slices.of(contents, pageable);
+    }
+
+    /**
+     * 팀별 평균 나이, 팀 안에서의 나이 순위를 윈도우 함수로 한 번에 조회한다.
+     * 윈도우 함수는 where 절이 적용된 뒤 계산되므로 평균, 순위는 검색 조건에 맞는 회원 기준이다.
+     */
+    @Override
+    public List<MemberTeamRankDto> searchTeamAgeRank(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamRankDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name,
+                        WindowFunctions.avgOver(member.age, member.team.id),
+                        WindowFunctions.rankOver(member.team.id, member.age, false)
+                ))
                 .from(member)
-                .leftJoin(member.team, team)
+                .join(member.team, team)
                 .where(
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLog(condition.getAgeLoe())
-                );
+                )
+                .orderBy(team.id.asc(), member.age.desc(), member.id.asc())
+                .fetch();
+    }
 
-        // count 쿼리가 생략 가능한 경우 생략해서 처리
-        // 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작을 때
-        // 마지막 페이지 일 때 (offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구함)
-        // 위 상황일때 countQuery.fetchCount() 쿼리를 실행하지 않는다.
-        return PageableExecutionUtils.getPage(contents, pageable, () -> countQuery.fetchCount());
+    /**
+     * 팀 평균 나이보다 나이가 많은 회원
+     *
+     * 윈도우 함수 결과로 필터링하려면 from 절 서브쿼리가 필요한데 JPQL 은 지원하지 않으므로 네이티브 SQL 로 조회한다.
+     * 상관 서브쿼리(회원마다 팀 평균을 다시 계산)와 달리 회원 테이블을 한 번만 읽는다.
+     */
+    @Override
+    public List<MemberTeamDto> searchOlderThanTeamAverage() {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                "select x.member_id, x.username, x.age, x.team_id, x.name" +
+                " from (" +
+                "   select m.member_id, m.username, m.age, t.team_id, t.name," +
+                "          avg(cast(m.age as double)) over (partition by m.team_id) as team_avg_age" +
+                "   from member m" +
+                "   join team t on t.team_id = m.team_id" +
+                " ) x" +
+                " where x.age > x.team_avg_age" +
+                " order by x.team_id, x.age desc, x.member_id")
+                .getResultList();
+
+        List<MemberTeamDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(new MemberTeamDto(
+                    ((Number) row[0]).longValue(),
+                    (String) row[1],
+                    ((Number) row[2]).intValue(),
+                    ((Number) row[3]).longValue(),
+                    (String) row[4]));
+        }
+        return result;
     }
 }
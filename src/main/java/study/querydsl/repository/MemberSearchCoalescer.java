@@ -0,0 +1,114 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
+import study.querydsl.repository.support.DeadlineExceededException;
+import study.querydsl.repository.support.RequestConcurrencyLimit;
+import study.querydsl.repository.support.RequestDeadline;
+import study.querydsl.repository.support.SingleFlight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 동일한 검색 조건으로 동시에 들어온 검색 요청을 하나의 DB 조회로 합친다.
+ *
+ * 검색 조건은 빈 문자열을 null 로 정규화해서 비교한다. (검색 조건에서 빈 문자열은 조건 없음과 같다.)
+ * member.search.coalescing 카운터의 result=shared 비율이 합쳐진 요청 비율이다.
+ *
+ * 요청 기한(RequestDeadline)이 있으면 실행 중인 조회의 결과를 남은 시간만큼만 기다리고, 넘으면 각자 DeadlineExceededException 을 던진다.
+ * 공유되는 조회는 서버 설정 기한으로만 실행한다. 클라이언트 기한이 더 짧은 요청은 공유 조회를 시작하지 않고 혼자 실행한다.
+ *
+ * 동시 실행 한도(RequestConcurrencyLimit)는 실제로 조회를 실행하는 호출만 차지한다. 결과를 기다리는 호출은 DB 부하가 없으므로 제외한다.
+ */
+@Component
+public class MemberSearchCoalescer {
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final SingleFlight<List<Object>, Object> singleFlight = new SingleFlight<>();
+
+    public MemberSearchCoalescer(MemberJpaRepository memberJpaRepository, MemberRepository memberRepository, MeterRegistry meterRegistry) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.memberRepository = memberRepository;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("member.search.coalescing.in-flight", singleFlight, SingleFlight::inFlightCount);
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = normalize(condition);
+        return execute("search", normalized, null, () -> memberJpaRepository.search(normalized));
+    }
+
+    public List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberTeamField> fields) {
+        MemberSearchCondition normalized = normalize(condition);
+        // 같은 필드 조합끼리만 합친다. (필드 순서가 응답 순서이므로 순서까지 같아야 한다.)
+        List<MemberTeamField> fieldKey = new ArrayList<>(fields);
+        return execute("searchFields", Arrays.asList(normalized, fieldKey), null, () -> memberRepository.searchFields(normalized, fields));
+    }
+
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = normalize(condition);
+        return execute("searchPageSimple", normalized, pageable, () -> memberRepository.searchPageSimple(normalized, pageable));
+    }
+
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = normalize(condition);
+        return execute("searchPageComplex", normalized, pageable, () -> memberRepository.searchPageComplex(normalized, pageable));
+    }
+
+    public Page<MemberTeamDto> searchPageComplexOptimization(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = normalize(condition);
+        return execute("searchPageComplexOptimization", normalized, pageable, () -> memberRepository.searchPageComplexOptimization(normalized, pageable));
+    }
+
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition normalized = normalize(condition);
+        return execute("searchSlice", normalized, pageable, () -> memberRepository.searchSlice(normalized, pageable));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T execute(String method, Object condition, Pageable pageable, Supplier<T> query) {
+        List<Object> key = Arrays.asList(method, condition, pageable);
+        SingleFlight.Result<Object> result;
+        try {
+            // 클라이언트가 정한 기한으로 실행하는 호출은 다른 요청이 기다리는 실행을 맡지 않는다.
+            result = singleFlight.execute(key, () -> RequestConcurrencyLimit.execute(query), !RequestDeadline.isClientBound(), RequestDeadline.remainingMillis());
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("request deadline exceeded while waiting for a shared " + method);
+        }
+        counter(method, result.isShared()).increment();
+        return (T) result.getValue();
+    }
+
+    private Counter counter(String method, boolean shared) {
+        return Counter.builder("member.search.coalescing")
+                .tag("method", method)
+                .tag("result", shared ? "shared" : "executed")
+                .register(meterRegistry);
+    }
+
+    private MemberSearchCondition normalize(MemberSearchCondition condition) {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUsername(StringUtils.hasText(condition.getUsername()) ? condition.getUsername() : null);
+        normalized.setTeamName(StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null);
+        normalized.setAgeGoe(condition.getAgeGoe());
+        normalized.setAgeLoe(condition.getAgeLoe());
+        return normalized;
+    }
+}
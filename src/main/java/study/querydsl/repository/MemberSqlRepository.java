@@ -0,0 +1,189 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.sql.SQLExpressions;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamRankDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.dto.QMemberTeamRankDto;
+import study.querydsl.repository.support.Slices;
+
+import java.util.List;
+
+import static study.querydsl.sql.SMember.member;
+import static study.querydsl.sql.STeam.team;
+
+/**
+ * MemberRepositoryCustom 의 querydsl-sql 구현
+ *
+ * JPQL 변환, 엔티티/영속성 컨텍스트를 거치지 않고 SQL 결과를 바로 DTO 로 만든다.
+ * 검색 조건의 의미(빈 문자열은 조건 없음, 팀이 없는 회원 포함)는 MemberRepositoryImpl 과 같다.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MemberSqlRepository implements MemberRepositoryCustom {
+
+    private final SQLQueryFactory queryFactory;
+
+    public MemberSqlRepository(SQLQueryFactory queryFactory) {
+        this.queryFactory = queryFactory;
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return contentQuery(condition).fetch();
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> contents = contentQuery(condition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+        return new PageImpl<>(contents, pageable, countQuery(condition).fetchCount());
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchPageSimple(condition, pageable);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplexOptimization(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> contents = contentQuery(condition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        SQLQuery<?> countQuery = countQuery(condition);
+        return PageableExecutionUtils.getPage(contents, pageable, countQuery::fetchCount);
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> contents = contentQuery(condition)
+                .orderBy(member.memberId.asc())
+                .offset(pageable.getOffset())
+                .limit(Slices.limitOf(pageable))
+                .fetch();
+        return Slices.of(contents, pageable);
+    }
+
+    @Override
+    public List<MemberTeamRankDto> searchTeamAgeRank(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamRankDto(
+                        member.memberId,
+                        member.username,
+                        member.age,
+                        team.teamId,
+                        team.name,
+                        SQLExpressions.avg(member.age.castToNum(Double.class)).over().partitionBy(member.teamId),
+                        SQLExpressions.rank().over().partitionBy(member.teamId).orderBy(member.age.desc())
+                ))
+                .from(member)
+                .join(team).on(member.teamId.eq(team.teamId))
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(team.teamId.asc(), member.age.desc(), member.memberId.asc())
+                .fetch();
+    }
+
+    /**
+     * querydsl-sql 은 from 절 서브쿼리를 지원하므로 네이티브 SQL 문자열 없이 작성할 수 있다.
+     */
+    @Override
+    public List<MemberTeamDto> searchOlderThanTeamAverage() {
+        NumberPath<Double> teamAvgAge = Expressions.numberPath(Double.class, "TEAM_AVG_AGE");
+        SubQueryExpression<Tuple> withAverage = SQLExpressions
+                .select(member.memberId, member.username, member.age, team.teamId, team.name,
+                        SQLExpressions.avg(member.age.castToNum(Double.class)).over().partitionBy(member.teamId).as(teamAvgAge))
+                .from(member)
+                .join(team).on(member.teamId.eq(team.teamId));
+
+        PathBuilder<Tuple> x = new PathBuilder<>(Tuple.class, "x");
+        NumberPath<Long> memberId = x.getNumber("MEMBER_ID", Long.class);
+        NumberPath<Integer> age = x.getNumber("AGE", Integer.class);
+        NumberPath<Long> teamId = x.getNumber("TEAM_ID", Long.class);
+
+        return queryFactory
+                .select(new QMemberTeamDto(memberId, x.getString("USERNAME"), age, teamId, x.getString("NAME")))
+                .from(withAverage, x)
+                .where(age.gt(x.getNumber("TEAM_AVG_AGE", Double.class)))
+                .orderBy(teamId.asc(), age.desc(), memberId.asc())
+                .fetch();
+    }
+
+    private SQLQuery<MemberTeamDto> contentQuery(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.memberId,
+                        member.username,
+                        member.age,
+                        team.teamId,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.teamId))
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    /**
+     * 팀 이름 조건이 없으면 left join 은 row 수를 바꾸지 않으므로 회원 테이블만 센다.
+     */
+    private SQLQuery<?> countQuery(MemberSearchCondition condition) {
+        SQLQuery<?> query = queryFactory
+                .select(member.memberId)
+                .from(member);
+        if (StringUtils.hasText(condition.getTeamName())) {
+            query.join(team).on(member.teamId.eq(team.teamId));
+        }
+        return query.where(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe())
+        );
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
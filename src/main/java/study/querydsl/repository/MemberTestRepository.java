@@ -2,15 +2,22 @@ package study.querydsl.repository;
 
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
+import study.querydsl.repository.support.SortPlanner;
 
 import java.util.List;
 
@@ -18,10 +25,19 @@ import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.team;
 
 @Repository
+@Transactional(readOnly = true)
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
-    public MemberTestRepository() {
-        super(Member.class);
+    public MemberTestRepository(MeterRegistry meterRegistry) {
+        super(Member.class, true);
+        // member.username, member.age 는 인덱스가 있다. (Member 엔티티 참고)
+        setSortPlanner(SortPlanner.builder("member-test", member.id)
+                .allow("id", member.id)
+                .allow("memberId", member.id)
+                .allow("username", member.username)
+                .allow("age", member.age)
+                .meterRegistry(meterRegistry)
+                .build());
     }
 
     public List<Member> basicSelect() {
@@ -44,7 +60,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                         ageLog(condition.getAgeLoe())
                 );
 
-        List<Member> content = getQuerydsl().applyPagination(pageable, query)
+        List<Member> content = applyPaging(pageable, query)
                 .fetch();
 
         return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
@@ -53,6 +69,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
         return applyPagination(pageable, query ->query
                         .selectFrom(member)
+                        .leftJoin(member.team, team)
                         .where(usernameEq(condition.getUsername()),
                                 teamNameEq(condition.getTeamName()),
                                 ageGoe(condition.getAgeGoe()),
@@ -64,6 +81,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
         return applyPagination(pageable, contentQuery ->contentQuery
                 .selectFrom(member)
+                .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
@@ -71,6 +89,7 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                 ), countQuery -> countQuery
                 .select(member.id)
                 .from(member)
+                .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
@@ -79,6 +98,60 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
         );
     }
 
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        return applySlicing(pageable, contentQuery -> contentQuery
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLog(condition.getAgeLoe())
+                )
+        );
+    }
+
+    public Page<MemberTeamDto> searchPageByDeferredJoin(MemberSearchCondition condition, Pageable pageable) {
+        return applyDeferredJoinPagination(pageable, idQuery -> memberIdQuery(idQuery, condition),
+                (contentQuery, ids) -> contentQuery
+                        .select(new QMemberTeamDto(
+                                member.id,
+                                member.username,
+                                member.age,
+                                team.id,
+                                team.name
+                        ))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(member.id.in(ids)),
+                MemberTeamDto::getMemberId,
+                countQuery -> memberIdQuery(countQuery, condition)
+        );
+    }
+
+    /**
+     * 지연 조인의 id, count 쿼리. team 은 teamName 조건이 있을 때만 조인해서 member 인덱스만으로 처리할 수 있게 한다.
+     */
+    private JPAQuery<Long> memberIdQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        JPAQuery<Long> query = queryFactory
+                .select(member.id)
+                .from(member);
+        if (StringUtils.hasText(condition.getTeamName())) {
+            query.join(member.team, team);
+        }
+        return query.where(usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLog(condition.getAgeLoe())
+        );
+    }
+
     private BooleanExpression usernameEq(String username) {
         return StringUtils.hasText(username) ? member.username.eq(username) : null;
     }
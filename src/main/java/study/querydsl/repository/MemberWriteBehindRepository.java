@@ -0,0 +1,18 @@
+package study.querydsl.repository;
+
+import study.querydsl.entity.Member;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 회원 저장을 큐에 넣고 백그라운드에서 모아서 커밋한다. (write-behind, group commit)
+ */
+public interface MemberWriteBehindRepository {
+
+    /**
+     * 저장을 예약한다. 반환된 future 는 회원이 포함된 배치가 커밋되면 완료된다.
+     * 큐가 가득 차서 정해진 시간 안에 넣지 못하면 RejectedExecutionException 으로 실패한다.
+     * 호출한 쪽의 트랜잭션과는 별개로 커밋된다.
+     */
+    CompletableFuture<Member> saveBehind(Member member);
+}
@@ -0,0 +1,200 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberWriteBehindRepository 구현
+ *
+ * 워커 스레드 하나가 큐에서 첫 건을 꺼낸 뒤 batch-size 가 차거나 linger-ms 가 지날 때까지 더 모으고,
+ * 한 트랜잭션에서 persist 후 커밋한다. (hibernate.jdbc.batch_size 로 insert 도 JDBC 배치로 나간다.)
+ * 배치 커밋이 실패하면 어떤 회원 때문인지 알 수 없으므로 회원마다 트랜잭션을 나눠 다시 시도한다.
+ */
+@Slf4j
+public class MemberWriteBehindRepositoryImpl implements MemberWriteBehindRepository {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingMember> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long offerTimeoutMs;
+
+    private final Counter rejected;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public MemberWriteBehindRepositoryImpl(EntityManager em, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                           @Value("${querydsl.write-behind.queue-capacity:10000}") int queueCapacity,
+                                           @Value("${querydsl.write-behind.batch-size:100}") int batchSize,
+                                           @Value("${querydsl.write-behind.linger-ms:5}") long lingerMs,
+                                           @Value("${querydsl.write-behind.offer-timeout-ms:100}") long offerTimeoutMs) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        this.rejected = meterRegistry.counter("member.write-behind.rejected");
+        this.batchSizes = DistributionSummary.builder("member.write-behind.batch.size").register(meterRegistry);
+        this.commitTimer = meterRegistry.timer("member.write-behind.commit");
+        meterRegistry.gauge("member.write-behind.queue", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "member-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 새 요청은 받지 않고 큐에 남은 회원은 모두 커밋한 뒤 종료한다.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    public CompletableFuture<Member> saveBehind(Member member) {
+        PendingMember pending = new PendingMember(member);
+        if (!running) {
+            pending.future.completeExceptionally(new RejectedExecutionException("write-behind repository is stopped"));
+            return pending.future;
+        }
+        try {
+            if (!queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                pending.future.completeExceptionally(new RejectedExecutionException("write-behind queue is full"));
+            } else if (!running && queue.remove(pending)) {
+                // running 확인 후 stop() 이 끝났으면 워커가 이미 큐를 비웠을 수 있으므로 직접 꺼내서 실패 처리한다.
+                pending.future.completeExceptionally(new RejectedExecutionException("write-behind repository is stopped"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    private void drainLoop() {
+        List<PendingMember> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMember first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingMember next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                // 모으던 배치는 버리지 않고 커밋한다. 종료 중이면 남은 큐를 마저 비우도록 계속 돈다.
+                running = false;
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+            } finally {
+                // 커밋도 실패 처리도 되지 않은 회원이 남지 않도록 한다. (이미 완료된 future 는 바뀌지 않는다.)
+                batch.forEach(pending -> pending.future.completeExceptionally(new IllegalStateException("write-behind batch was not committed")));
+                batch.clear();
+            }
+        }
+        rejectRemaining();
+    }
+
+    /**
+     * 워커가 끝난 뒤 큐에 들어온 회원은 커밋할 스레드가 없으므로 실패 처리한다.
+     */
+    private void rejectRemaining() {
+        PendingMember pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new RejectedExecutionException("write-behind repository is stopped"));
+        }
+    }
+
+    private void commit(List<PendingMember> batch) {
+        batchSizes.record(batch.size());
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> persist(batch)));
+            batch.forEach(pending -> pending.future.complete(pending.member));
+        } catch (RuntimeException e) {
+            log.warn("write-behind batch of {} failed, retrying one by one", batch.size(), e);
+            for (PendingMember pending : batch) {
+                commitOne(pending);
+            }
+        }
+    }
+
+    private void commitOne(PendingMember pending) {
+        try {
+            // 실패한 배치에서 할당된 id 가 남아 있으면 merge 로 처리되므로 초기화한다.
+            pending.member.setId(null);
+            transactionTemplate.executeWithoutResult(status -> persist(pending.member));
+            pending.future.complete(pending.member);
+        } catch (RuntimeException e) {
+            pending.member.setId(null);
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private void persist(List<PendingMember> batch) {
+        for (PendingMember pending : batch) {
+            persist(pending.member);
+        }
+    }
+
+    /**
+     * 준영속 팀을 참조하면 영속 상태의 팀 참조로 바꾼다. (인원 수는 TeamMemberCountListener 가 DB 에서 증가시킨다.)
+     */
+    private void persist(Member member) {
+        Team team = member.getTeam();
+        if (team != null && team.getId() != null && !em.contains(team)) {
+            member.setTeam(em.getReference(Team.class, team.getId()));
+        }
+        em.persist(member);
+    }
+
+    private static final class PendingMember {
+        final Member member;
+        final CompletableFuture<Member> future = new CompletableFuture<>();
+
+        PendingMember(Member member) {
+            this.member = member;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package study.querydsl.repository.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD(additive increase, multiplicative decrease) 방식의 동시 실행 한도
+ *
+ * - 응답이 목표 시간 안에 성공하면 한도를 1/limit 만큼 늘린다. (한도를 거의 다 쓰고 있을 때만)
+ * - 목표 시간을 넘기거나 실패하면 한도에 backoffRatio 를 곱해서 줄인다.
+ * - 한도를 넘은 요청은 queueSize 개까지만 maxWait 동안 기다리고 나머지는 바로 거절한다.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long maxWaitNanos;
+    private final long targetLatencyNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int queueSize,
+                                      long maxWaitMillis, long targetLatencyMillis) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("minLimit must be between 1 and maxLimit");
+        }
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+    }
+
+    /**
+     * @return 실행해도 되면 true, 거절해야 하면 false. true 인 경우 반드시 {@link #release} 를 호출해야 한다.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= queueSize || maxWaitNanos <= 0) {
+                rejected.increment();
+                return false;
+            }
+
+            waiting++;
+            try {
+                long nanos = maxWaitNanos;
+                while (inFlight >= currentLimit()) {
+                    if (nanos <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    nanos = available.awaitNanos(nanos);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.increment();
+                return false;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos, boolean success) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= currentLimit() / 2;
+            inFlight--;
+            if (!success || latencyNanos > targetLatencyNanos) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 한도를 조정하지 않고 반환한다. (과부하 여부를 판단할 수 없는 결과)
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+}
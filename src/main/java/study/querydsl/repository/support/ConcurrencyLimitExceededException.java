@@ -0,0 +1,11 @@
+package study.querydsl.repository.support;
+
+/**
+ * 동시 실행 한도(RequestConcurrencyLimit)를 넘어서 쿼리를 실행하지 않았을 때 발생한다.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
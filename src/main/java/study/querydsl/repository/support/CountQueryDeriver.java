@@ -0,0 +1,223 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.DefaultQueryMetadata;
+import com.querydsl.core.JoinExpression;
+import com.querydsl.core.JoinType;
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.CollectionExpression;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.MapExpression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.core.types.Visitor;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.jpa.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.lang.Nullable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 컨텐츠 쿼리에서 count 쿼리를 만들어준다.
+ *
+ * 컨텐츠 쿼리를 그대로 fetchCount() 하면 페치 조인, 정렬, 불필요한 left join 이 count 쿼리에 그대로 남는다.
+ * 여기서는 where 절과 조인 조건만 남기고 다음을 제거한 뒤 select count(root.id) 로 조회한다.
+ * - select 프로젝션, order by, offset/limit
+ * - 페치 조인 플래그
+ * - where 절(또는 남겨진 다른 조인)에서 참조하지 않는 to-one left join (row 수를 바꾸지 않는다.)
+ *
+ * 컬렉션 left join, 세타 조인은 row 수를 바꿀 수 있으므로 그대로 둔다.
+ * group by, having, distinct 가 있는 쿼리는 결과 의미가 달라지므로 기존 fetchCount() 를 사용한다.
+ */
+public final class CountQueryDeriver {
+
+    private CountQueryDeriver() {
+    }
+
+    public static boolean isDerivable(JPAQuery<?> contentQuery) {
+        QueryMetadata metadata = contentQuery.getMetadata();
+        return !metadata.getJoins().isEmpty()
+                && metadata.getJoins().get(0).getTarget() instanceof EntityPath
+                && metadata.getGroupBy().isEmpty()
+                && metadata.getHaving() == null
+                && !metadata.isDistinct();
+    }
+
+    /**
+     * 컨텐츠 쿼리의 전체 건수를 조회한다. 변환할 수 없는 형태면 기존 fetchCount() 를 사용한다.
+     */
+    public static long fetchCount(EntityManager em, JPAQuery<?> contentQuery) {
+        if (!isDerivable(contentQuery)) {
+            return contentQuery.fetchCount();
+        }
+        Long count = derive(em, contentQuery).fetchOne();
+        return count != null ? count : 0L;
+    }
+
+    public static JPAQuery<Long> derive(EntityManager em, JPAQuery<?> contentQuery) {
+        if (!isDerivable(contentQuery)) {
+            throw new IllegalArgumentException("count query can not be derived from " + contentQuery);
+        }
+        QueryMetadata source = contentQuery.getMetadata();
+        List<JoinExpression> joins = source.getJoins();
+
+        Set<Expression<?>> referenced = new HashSet<>();
+        collect(source.getWhere(), referenced);
+
+        // 뒤쪽 조인부터 보면서 남길 조인이 참조하는 별칭을 누적한다.
+        Deque<JoinExpression> keptJoins = new ArrayDeque<>();
+        for (int i = joins.size() - 1; i > 0; i--) {
+            JoinExpression join = joins.get(i);
+            if (isPrunable(join) && !referenced.contains(aliasOf(join.getTarget()))) {
+                continue;
+            }
+            keptJoins.addFirst(join);
+            collect(join.getTarget(), referenced);
+            collect(join.getCondition(), referenced);
+        }
+        keptJoins.addFirst(joins.get(0));
+
+        DefaultQueryMetadata metadata = new DefaultQueryMetadata();
+        for (JoinExpression join : keptJoins) {
+            metadata.addJoin(join.getType(), join.getTarget());
+            if (join.getCondition() != null) {
+                metadata.addJoinCondition(join.getCondition());
+            }
+        }
+        if (source.getWhere() != null) {
+            metadata.addWhere(source.getWhere());
+        }
+        copyParams(source, metadata);
+
+        EntityPath<?> root = (EntityPath<?>) joins.get(0).getTarget();
+        return new DeadlineJPAQuery<Void>(em, JPAProvider.getTemplates(em), metadata)
+                .select(Expressions.numberOperation(Long.class, Ops.AggOps.COUNT_AGG, idOf(em, root)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void copyParams(QueryMetadata source, QueryMetadata target) {
+        for (Map.Entry<ParamExpression<?>, Object> param : source.getParams().entrySet()) {
+            target.setParam((ParamExpression<Object>) param.getKey(), param.getValue());
+        }
+    }
+
+    private static boolean isPrunable(JoinExpression join) {
+        if (join.getType() != JoinType.LEFTJOIN) {
+            return false;
+        }
+        Expression<?> association = associationOf(join.getTarget());
+        return association instanceof Path
+                && ((Path<?>) association).getMetadata().getParent() != null
+                && !(association instanceof CollectionExpression)
+                && !(association instanceof MapExpression);
+    }
+
+    private static Expression<?> associationOf(Expression<?> target) {
+        if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+            return ((Operation<?>) target).getArg(0);
+        }
+        return target;
+    }
+
+    private static Expression<?> aliasOf(Expression<?> target) {
+        if (target instanceof Operation && ((Operation<?>) target).getOperator() == Ops.ALIAS) {
+            return ((Operation<?>) target).getArg(1);
+        }
+        return target;
+    }
+
+    private static Expression<?> idOf(EntityManager em, EntityPath<?> root) {
+        EntityType<?> entityType = em.getMetamodel().entity(root.getType());
+        if (!entityType.hasSingleIdAttribute()) {
+            return root;
+        }
+        String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        return Expressions.path(entityType.getIdType().getJavaType(), root, idName);
+    }
+
+    private static void collect(@Nullable Expression<?> expr, Set<Expression<?>> paths) {
+        if (expr != null) {
+            expr.accept(PathCollector.INSTANCE, paths);
+        }
+    }
+
+    /**
+     * 표현식에서 사용된 모든 경로와 그 상위 경로(별칭)를 모은다.
+     */
+    private static final class PathCollector implements Visitor<Void, Set<Expression<?>>> {
+
+        static final PathCollector INSTANCE = new PathCollector();
+
+        @Override
+        public Void visit(Constant<?> expr, Set<Expression<?>> paths) {
+            return null;
+        }
+
+        @Override
+        public Void visit(FactoryExpression<?> expr, Set<Expression<?>> paths) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, paths);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Operation<?> expr, Set<Expression<?>> paths) {
+            for (Expression<?> arg : expr.getArgs()) {
+                arg.accept(this, paths);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ParamExpression<?> expr, Set<Expression<?>> paths) {
+            return null;
+        }
+
+        @Override
+        public Void visit(Path<?> expr, Set<Expression<?>> paths) {
+            Path<?> path = expr;
+            while (path != null && paths.add(path)) {
+                path = path.getMetadata().getParent();
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(SubQueryExpression<?> expr, Set<Expression<?>> paths) {
+            QueryMetadata metadata = expr.getMetadata();
+            for (JoinExpression join : metadata.getJoins()) {
+                collect(join.getTarget(), paths);
+                collect(join.getCondition(), paths);
+            }
+            collect(metadata.getProjection(), paths);
+            collect(metadata.getWhere(), paths);
+            collect(metadata.getHaving(), paths);
+            return null;
+        }
+
+        @Override
+        public Void visit(TemplateExpression<?> expr, Set<Expression<?>> paths) {
+            for (Object arg : expr.getArgs()) {
+                if (arg instanceof Expression) {
+                    ((Expression<?>) arg).accept(this, paths);
+                }
+            }
+            return null;
+        }
+    }
+}
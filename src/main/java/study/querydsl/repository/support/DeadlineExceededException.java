@@ -0,0 +1,11 @@
+package study.querydsl.repository.support;
+
+/**
+ * 요청 기한(RequestDeadline)이 지나서 쿼리를 실행하지 않았을 때 발생한다.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
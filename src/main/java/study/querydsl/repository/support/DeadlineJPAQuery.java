@@ -0,0 +1,51 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.lang.Nullable;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+/**
+ * 요청 기한(RequestDeadline)을 적용하는 JPAQuery
+ *
+ * 쿼리를 만들 때마다 기한을 확인하므로 컨텐츠 쿼리 뒤에 기한이 지나면 count 쿼리는 실행하지 않는다.
+ * 남은 시간은 JDBC 쿼리 타임아웃(초 단위, 올림)으로 적용되어 DB 에서 실행 중인 쿼리도 취소된다.
+ */
+public class DeadlineJPAQuery<T> extends JPAQuery<T> {
+
+    public DeadlineJPAQuery(EntityManager em) {
+        super(em);
+    }
+
+    public DeadlineJPAQuery(EntityManager em, JPQLTemplates templates) {
+        super(em, templates);
+    }
+
+    public DeadlineJPAQuery(EntityManager em, JPQLTemplates templates, QueryMetadata metadata) {
+        super(em, templates, metadata);
+    }
+
+    @Override
+    protected Query createQuery(@Nullable QueryModifiers modifiers, boolean forCount) {
+        RequestDeadline.check();
+        Query query = super.createQuery(modifiers, forCount);
+        long remainingMillis = RequestDeadline.remainingMillis();
+        if (remainingMillis != Long.MAX_VALUE) {
+            int timeoutSeconds = (int) Math.max(1, (remainingMillis + 999) / 1000);
+            query.setHint(QueryHints.TIMEOUT_HIBERNATE, timeoutSeconds);
+        }
+        return query;
+    }
+
+    @Override
+    public DeadlineJPAQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+        DeadlineJPAQuery<T> query = new DeadlineJPAQuery<>(entityManager, templates, getMetadata().clone());
+        query.clone(this);
+        return query;
+    }
+}
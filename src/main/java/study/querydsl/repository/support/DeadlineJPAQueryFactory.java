@@ -0,0 +1,28 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.EntityManager;
+
+/**
+ * select / selectFrom / from 으로 만드는 쿼리를 DeadlineJPAQuery 로 만든다.
+ */
+public class DeadlineJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager entityManager;
+
+    public DeadlineJPAQueryFactory(EntityManager entityManager) {
+        super(entityManager);
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new DeadlineJPAQuery<Void>(entityManager);
+    }
+
+    protected EntityManager getEntityManager() {
+        return entityManager;
+    }
+}
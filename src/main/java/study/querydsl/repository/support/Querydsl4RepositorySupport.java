@@ -3,11 +3,15 @@ package study.querydsl.repository.support;
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import
         org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
@@ -18,7 +22,12 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
@@ -34,9 +43,23 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private final boolean readOnly;
+    private SortPlanner sortPlanner;
     public Querydsl4RepositorySupport(Class<?> domainClass) {
+        this(domainClass, false);
+    }
+
+    /**
+     * @param readOnly true 이면 이 저장소에서 만드는 쿼리에 읽기 전용 힌트를 적용한다.
+     *                 조회한 엔티티의 스냅샷을 만들지 않는다. (더티 체킹 대상 제외)
+     *                 flush 모드는 바꾸지 않으므로 호출한 쪽의 쓰기 트랜잭션에서 저장한 엔티티도 조회된다.
+     *                 저장소에 @Transactional(readOnly = true) 를 함께 선언하면 이 저장소가 새로 시작한 트랜잭션에 한해
+     *                 스프링이 flush 모드를 MANUAL 로 바꾸고 읽기 전용 커넥션을 사용한다.
+     */
+    public Querydsl4RepositorySupport(Class<?> domainClass, boolean readOnly) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
+        this.readOnly = readOnly;
     }
 
     @Autowired
@@ -49,7 +72,7 @@ public abstract class Querydsl4RepositorySupport {
         this.entityManager = entityManager;
         this.querydsl = new Querydsl(entityManager, new
                 PathBuilder<>(path.getType(), path.getMetadata()));
-        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.queryFactory = new DeadlineJPAQueryFactory(entityManager);
     }
     @PostConstruct
     public void validate() {
@@ -66,29 +89,121 @@ public abstract class Querydsl4RepositorySupport {
     protected EntityManager getEntityManager() {
         return entityManager;
     }
+    protected boolean isReadOnly() {
+        return readOnly;
+    }
+    /**
+     * 정렬 계획을 지정하면 Pageable 의 Sort 를 그대로 쓰지 않고 허용된(인덱스가 있는) 경로로만 정렬한다.
+     * 지정하지 않으면 기존처럼 Querydsl 이 Sort 속성을 그대로 경로로 변환한다.
+     */
+    protected void setSortPlanner(SortPlanner sortPlanner) {
+        this.sortPlanner = sortPlanner;
+    }
+    protected <T> JPQLQuery<T> applyPaging(Pageable pageable, JPQLQuery<T> query) {
+        if (sortPlanner == null) {
+            return getQuerydsl().applyPagination(pageable, query);
+        }
+        if (pageable.isPaged()) {
+            query.offset(pageable.getOffset());
+            query.limit(pageable.getPageSize());
+        }
+        return applySort(pageable.getSort(), query);
+    }
+    protected <T> JPQLQuery<T> applySort(Sort sort, JPQLQuery<T> query) {
+        if (sortPlanner == null) {
+            return getQuerydsl().applySorting(sort, query);
+        }
+        return query.orderBy(sortPlanner.plan(sort));
+    }
     protected <T> JPAQuery<T> select(Expression<T> expr) {
-        return getQueryFactory().select(expr);
+        return withHints(getQueryFactory().select(expr));
     }
     protected <T> JPAQuery<T> selectFrom(EntityPath<T> from) {
-        return getQueryFactory().selectFrom(from);
+        return withHints(getQueryFactory().selectFrom(from));
+    }
+    protected <T> JPAQuery<T> withHints(JPAQuery<T> query) {
+        if (readOnly) {
+            query.setHint(QueryHints.READ_ONLY, true);
+        }
+        return query;
+    }
+    protected JPAQuery<Long> countQuery(JPAQuery<?> contentQuery) {
+        return withHints(CountQueryDeriver.derive(getEntityManager(), contentQuery));
+    }
+    protected long fetchCount(JPAQuery<?> contentQuery) {
+        if (!CountQueryDeriver.isDerivable(contentQuery)) {
+            return contentQuery.fetchCount();
+        }
+        Long count = countQuery(contentQuery).fetchOne();
+        return count != null ? count : 0L;
     }
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
-        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable,
-                jpaQuery).fetch();
+        JPAQuery jpaQuery = withHints(contentQuery.apply(getQueryFactory()));
+        List<T> content = applyPaging(pageable, jpaQuery).fetch();
+        // 컨텐츠 쿼리에서 정렬, 페치 조인, 불필요한 left join 을 제거한 count 쿼리를 사용한다.
         return PageableExecutionUtils.getPage(content, pageable,
-                jpaQuery::fetchCount);
+                () -> fetchCount(jpaQuery));
     }
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
             JPAQuery> countQuery) {
-        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable,
-                jpaContentQuery).fetch();
-        JPAQuery countResult = countQuery.apply(getQueryFactory());
+        JPAQuery jpaContentQuery = withHints(contentQuery.apply(getQueryFactory()));
+        List<T> content = applyPaging(pageable, jpaContentQuery).fetch();
+        JPAQuery countResult = withHints(countQuery.apply(getQueryFactory()));
         return PageableExecutionUtils.getPage(content, pageable,
                 countResult::fetchCount);
     }
 
+    /**
+     * count 쿼리 없는 Slice 페이징 (무한 스크롤)
+     * 정렬, offset 을 적용하고 페이지 크기 + 1 건을 조회해서 다음 페이지 존재 여부를 판단한다.
+     */
+    protected <T> Slice<T> applySlicing(Pageable pageable,
+                                        Function<JPAQueryFactory, JPAQuery> contentQuery) {
+        JPAQuery<T> jpaQuery = withHints(contentQuery.apply(getQueryFactory()));
+        List<T> rows = applySort(pageable.getSort(), jpaQuery)
+                .offset(pageable.getOffset())
+                .limit(Slices.limitOf(pageable))
+                .fetch();
+        return Slices.of(rows, pageable);
+    }
+
+    /**
+     * 지연 조인(deferred join) 페이징
+     * 1. idQuery 에 페이징, 정렬을 적용해서 해당 페이지의 id 만 조회한다. (인덱스만으로 처리 가능)
+     * 2. contentQuery 로 조회한 id 들에 대해서만 조인해서 전체 컬럼을 조회한다.
+     * 3. 1번에서 조회한 id 순서대로 결과를 다시 정렬한다.
+     * offset 이 큰 뒤쪽 페이지에서 건너뛰는 row 마다 조인 결과를 만들지 않아도 된다.
+     */
+    protected <T, ID> Page<T> applyDeferredJoinPagination(Pageable pageable,
+                                                          Function<JPAQueryFactory, JPAQuery<ID>> idQuery,
+                                                          BiFunction<JPAQueryFactory, List<ID>, JPAQuery<T>> contentQuery,
+                                                          Function<T, ID> idExtractor,
+                                                          Function<JPAQueryFactory, JPAQuery> countQuery) {
+        JPAQuery<ID> jpaIdQuery = withHints(idQuery.apply(getQueryFactory()));
+        List<ID> ids = applyPaging(pageable, jpaIdQuery).fetch();
+        List<T> content = ids.isEmpty()
+                ? Collections.emptyList()
+                : orderByIds(withHints(contentQuery.apply(getQueryFactory(), ids)).fetch(), ids, idExtractor);
+        JPAQuery countResult = withHints(countQuery.apply(getQueryFactory()));
+        return PageableExecutionUtils.getPage(content, pageable,
+                countResult::fetchCount);
+    }
+
+    private <T, ID> List<T> orderByIds(List<T> rows, List<ID> ids, Function<T, ID> idExtractor) {
+        Map<ID, T> rowsById = new HashMap<>();
+        for (T row : rows) {
+            rowsById.put(idExtractor.apply(row), row);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (ID id : ids) {
+            T row = rowsById.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
 }
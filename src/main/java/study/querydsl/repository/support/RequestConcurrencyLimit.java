@@ -0,0 +1,68 @@
+package study.querydsl.repository.support;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 요청에 적용할 동시 실행 한도 (스레드 로컬)
+ *
+ * 요청 진입 시 bind(), 종료 시 clear() 한다. 한도는 execute() 로 감싼 DB 조회 구간에만 적용하고 응답 시간도 그 구간만 잰다.
+ * 응답 렌더링이나 다른 요청이 실행 중인 공유 조회를 기다리는 시간(MemberSearchCoalescer follower)은 한도를 차지하지 않는다.
+ *
+ * 클라이언트 기한으로 난 기한 초과(DeadlineExceededException)와 쿼리 타임아웃은 과부하 신호가 아니므로 한도를 조정하지 않는다.
+ * 서버 설정 기한으로 난 경우는 실패로 보고 한도를 줄인다.
+ * 잘못된 요청(IllegalArgumentException)은 성공으로 본다.
+ */
+public final class RequestConcurrencyLimit {
+
+    private static final ThreadLocal<AdaptiveConcurrencyLimiter> LIMITER = new ThreadLocal<>();
+
+    private RequestConcurrencyLimit() {
+    }
+
+    public static void bind(AdaptiveConcurrencyLimiter limiter) {
+        LIMITER.set(limiter);
+    }
+
+    public static void clear() {
+        LIMITER.remove();
+    }
+
+    /**
+     * 한도 안에서 query 를 실행한다. 한도가 설정되어 있지 않으면 그대로 실행한다.
+     *
+     * @throws ConcurrencyLimitExceededException 한도를 넘어서 대기 시간 안에 실행하지 못한 경우
+     */
+    public static <T> T execute(Supplier<T> query) {
+        AdaptiveConcurrencyLimiter limiter = LIMITER.get();
+        if (limiter == null) {
+            return query.get();
+        }
+        if (!limiter.tryAcquire()) {
+            throw new ConcurrencyLimitExceededException("too many concurrent queries");
+        }
+
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            T result = query.get();
+            limiter.release(System.nanoTime() - start, true);
+            released = true;
+            return result;
+        } catch (DeadlineExceededException | org.springframework.dao.QueryTimeoutException | javax.persistence.QueryTimeoutException e) {
+            // 서버 설정 기한을 넘긴 것은 대기, 실행이 밀린 것이므로 실패로 보고 한도를 줄인다.
+            if (RequestDeadline.isClientBound()) {
+                limiter.release();
+                released = true;
+            }
+            throw e;
+        } catch (IllegalArgumentException e) {
+            limiter.release(System.nanoTime() - start, true);
+            released = true;
+            throw e;
+        } finally {
+            if (!released) {
+                limiter.release(System.nanoTime() - start, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package study.querydsl.repository.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 현재 요청의 처리 기한 (스레드 로컬)
+ *
+ * 요청 진입 시 start(), 종료 시 clear() 한다. 기한이 설정되어 있으면 DeadlineJPAQuery 가
+ * 쿼리마다 남은 시간을 확인하고 JDBC 쿼리 타임아웃으로 적용한다.
+ * 다른 스레드에서 쿼리를 실행할 때는 propagate() 로 기한을 넘긴다.
+ *
+ * 서버 설정 기한과 클라이언트가 요청한 기한을 따로 기억한다.
+ * 클라이언트 기한이 더 짧으면(isClientBound) 기한 초과는 서버 과부하가 아니라 클라이언트 선택의 결과다.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Deadline> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * 서버 설정 기한만 적용한다.
+     */
+    public static void start(long timeoutMillis) {
+        start(timeoutMillis, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param serverTimeoutMillis 엔드포인트 설정 기한 (없으면 Long.MAX_VALUE)
+     * @param clientTimeoutMillis 클라이언트가 헤더로 보낸 기한 (없으면 Long.MAX_VALUE)
+     */
+    public static void start(long serverTimeoutMillis, long clientTimeoutMillis) {
+        long now = System.nanoTime();
+        Long server = serverTimeoutMillis != Long.MAX_VALUE ? now + TimeUnit.MILLISECONDS.toNanos(serverTimeoutMillis) : null;
+        Long client = clientTimeoutMillis != Long.MAX_VALUE ? now + TimeUnit.MILLISECONDS.toNanos(clientTimeoutMillis) : null;
+        if (server == null && client == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(new Deadline(server, client));
+        }
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE.get() != null;
+    }
+
+    /**
+     * 클라이언트가 요청한 기한이 서버 설정 기한보다 짧아서 실제 기한이 된 경우 true
+     */
+    public static boolean isClientBound() {
+        Deadline deadline = DEADLINE.get();
+        return deadline != null && deadline.isClientBound();
+    }
+
+    /**
+     * 남은 시간 (기한이 없으면 Long.MAX_VALUE, 지났으면 0 이하)
+     */
+    public static long remainingMillis() {
+        Deadline deadline = DEADLINE.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadline.nanos() - System.nanoTime());
+    }
+
+    /**
+     * 기한이 지났으면 DeadlineExceededException 을 던진다.
+     */
+    public static void check() {
+        Deadline deadline = DEADLINE.get();
+        if (deadline != null && deadline.nanos() - System.nanoTime() <= 0) {
+            throw new DeadlineExceededException("request deadline exceeded");
+        }
+    }
+
+    /**
+     * 호출한 스레드의 기한을 작업을 실행하는 스레드에 그대로 적용한다.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Deadline deadline = DEADLINE.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = DEADLINE.get();
+            DEADLINE.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    DEADLINE.remove();
+                } else {
+                    DEADLINE.set(previous);
+                }
+            }
+        };
+    }
+
+    private static class Deadline {
+
+        private final Long server;
+        private final Long client;
+
+        Deadline(Long server, Long client) {
+            this.server = server;
+            this.client = client;
+        }
+
+        long nanos() {
+            if (server == null) {
+                return client;
+            }
+            if (client == null) {
+                return server;
+            }
+            return client - server < 0 ? client : server;
+        }
+
+        boolean isClientBound() {
+            return client != null && (server == null || client - server < 0);
+        }
+    }
+}
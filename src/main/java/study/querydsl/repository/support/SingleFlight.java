@@ -0,0 +1,143 @@
+package study.querydsl.repository.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키로 동시에 들어온 호출을 하나의 실행으로 합친다.
+ *
+ * 처음 들어온 호출(leader)만 supplier 를 실행하고, 실행 중에 같은 키로 들어온 호출은
+ * leader 의 결과(또는 예외)를 그대로 받는다. 실행이 끝나면 키를 제거하므로 결과를 캐시하지는 않는다.
+ * 결과 객체를 여러 호출자가 공유하므로 변경 불가능한 값(DTO, Page)에만 사용한다.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public Result<V> execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return new Result<>(await(existing), true);
+        }
+
+        return new Result<>(lead(key, created, supplier), false);
+    }
+
+    private V lead(K key, CompletableFuture<V> created, Supplier<V> supplier) {
+        try {
+            V value = supplier.get();
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * 기다리는 시간을 호출마다 따로 제한한다.
+     *
+     * 같은 키로 실행 중인 호출이 있으면 최대 timeoutMillis 동안 그 결과를 기다리고, 시간이 지나면 TimeoutException 을 던진다.
+     * (실행 중인 작업은 취소하지 않는다.) 실행 중인 호출이 없을 때 mayLead 가 false 이면
+     * 다른 호출과 공유하지 않고 혼자 실행한다. 자기 사정(예: 클라이언트가 정한 짧은 기한)으로 실패할 수 있는 호출이
+     * leader 가 되어 다른 호출까지 실패시키지 않도록 할 때 사용한다.
+     */
+    public Result<V> execute(K key, Supplier<V> supplier, boolean mayLead, long timeoutMillis) throws TimeoutException {
+        if (!mayLead) {
+            CompletableFuture<V> existing = inFlight.get(key);
+            if (existing != null) {
+                return new Result<>(await(existing, timeoutMillis), true);
+            }
+            return new Result<>(supplier.get(), false);
+        }
+
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return new Result<>(await(existing, timeoutMillis), true);
+        }
+        return new Result<>(lead(key, created, supplier), false);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * key 의 실행 결과를 기다리고 있는 호출 수 (추정값)
+     */
+    public int waiterCount(K key) {
+        CompletableFuture<V> future = inFlight.get(key);
+        return future != null ? future.getNumberOfDependents() : 0;
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private V await(CompletableFuture<V> future, long timeoutMillis) throws TimeoutException {
+        if (timeoutMillis == Long.MAX_VALUE) {
+            return await(future);
+        }
+        if (timeoutMillis <= 0) {
+            throw new TimeoutException("no time left to wait for the in-flight call");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the in-flight call", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public static class Result<V> {
+
+        private final V value;
+        private final boolean shared;
+
+        Result(V value, boolean shared) {
+            this.value = value;
+            this.shared = shared;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * 다른 호출의 실행 결과를 공유 받았으면 true
+         */
+        public boolean isShared() {
+            return shared;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package study.querydsl.repository.support;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * count 쿼리 없이 다음 페이지 존재 여부만 판단하는 Slice 페이징
+ *
+ * 페이지 크기보다 한 건 더(limit + 1) 조회해서 초과분이 있으면 hasNext = true 로 보고 초과분은 버린다.
+ */
+public final class Slices {
+
+    private Slices() {
+    }
+
+    public static long limitOf(Pageable pageable) {
+        return pageable.getPageSize() + 1L;
+    }
+
+    /**
+     * @param rows limitOf(pageable) 건으로 조회한 결과
+     */
+    public static <T> Slice<T> of(List<T> rows, Pageable pageable) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, pageable.getPageSize())) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+}
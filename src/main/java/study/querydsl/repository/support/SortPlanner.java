@@ -0,0 +1,163 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 요청으로 들어온 Sort 를 인덱스가 있는 경로만으로 이루어진 order by 로 바꾼다.
+ *
+ * - 허용 목록(allow)에 등록된 속성만 정렬에 사용한다. (인덱스가 있는 컬럼만 등록한다.)
+ * - 대소문자 무시(ignoreCase), null 순서 지정은 인덱스를 탈 수 없으므로 허용하지 않는다.
+ * - 정렬 키는 maxKeys 개까지만 사용한다.
+ * - 마지막에 유일 키(tiebreaker)를 마지막 정렬 키와 같은 방향으로 붙여서 페이지 간 순서가 항상 같도록 한다.
+ *
+ * 허용하지 않는 정렬은 정책에 따라 예외(REJECT)를 던지거나 해당 키만 버린다(IGNORE).
+ * 어느 경우든 query.sort.rejected 카운터(repository, reason, action 태그)를 올린다.
+ */
+public class SortPlanner {
+
+    public enum Policy {
+        REJECT, IGNORE
+    }
+
+    static final String UNKNOWN_PROPERTY = "unknown-property";
+    static final String IGNORE_CASE = "ignore-case";
+    static final String NULL_HANDLING = "null-handling";
+    static final String TOO_MANY_KEYS = "too-many-keys";
+
+    private final String name;
+    private final Map<String, ComparableExpressionBase<?>> allowed;
+    private final ComparableExpressionBase<?> tiebreaker;
+    private final int maxKeys;
+    private final Policy policy;
+    private final MeterRegistry meterRegistry;
+
+    private SortPlanner(Builder builder) {
+        this.name = builder.name;
+        this.allowed = new LinkedHashMap<>(builder.allowed);
+        this.tiebreaker = builder.tiebreaker;
+        this.maxKeys = builder.maxKeys;
+        this.policy = builder.policy;
+        this.meterRegistry = builder.meterRegistry;
+    }
+
+    /**
+     * @param name       메트릭 태그에 사용할 이름 (저장소 이름)
+     * @param tiebreaker 유일한 값을 갖는 경로 (보통 id)
+     */
+    public static Builder builder(String name, ComparableExpressionBase<?> tiebreaker) {
+        return new Builder(name, tiebreaker);
+    }
+
+    public OrderSpecifier<?>[] plan(Sort sort) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        Set<ComparableExpressionBase<?>> used = new HashSet<>();
+        for (Sort.Order order : sort) {
+            String reason = rejectReason(order, orders.size());
+            if (reason != null) {
+                reject(order, reason);
+                continue;
+            }
+            ComparableExpressionBase<?> path = allowed.get(order.getProperty());
+            if (!used.add(path)) {
+                continue;
+            }
+            orders.add(order.isAscending() ? path.asc() : path.desc());
+            if (path.equals(tiebreaker)) {
+                // 유일 키 뒤의 정렬 키는 결과 순서에 영향이 없다.
+                break;
+            }
+        }
+        if (!used.contains(tiebreaker)) {
+            // 마지막 키와 같은 방향으로 붙여야 (age desc, id desc) 처럼 한 방향으로 인덱스를 읽을 수 있다.
+            boolean descending = !orders.isEmpty() && !orders.get(orders.size() - 1).isAscending();
+            orders.add(descending ? tiebreaker.desc() : tiebreaker.asc());
+        }
+        return orders.toArray(new OrderSpecifier<?>[0]);
+    }
+
+    private String rejectReason(Sort.Order order, int keys) {
+        if (!allowed.containsKey(order.getProperty())) {
+            return UNKNOWN_PROPERTY;
+        }
+        if (order.isIgnoreCase()) {
+            return IGNORE_CASE;
+        }
+        if (order.getNullHandling() != Sort.NullHandling.NATIVE) {
+            return NULL_HANDLING;
+        }
+        if (keys >= maxKeys) {
+            return TOO_MANY_KEYS;
+        }
+        return null;
+    }
+
+    private void reject(Sort.Order order, String reason) {
+        if (meterRegistry != null) {
+            Counter.builder("query.sort.rejected")
+                    .tag("repository", name)
+                    .tag("reason", reason)
+                    .tag("action", policy == Policy.REJECT ? "rejected" : "ignored")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (policy == Policy.REJECT) {
+            throw new UnsupportedSortException("unsupported sort '" + order + "' (" + reason + "), allowed properties: " + allowed.keySet());
+        }
+    }
+
+    public static class Builder {
+
+        private final String name;
+        private final ComparableExpressionBase<?> tiebreaker;
+        private final Map<String, ComparableExpressionBase<?>> allowed = new LinkedHashMap<>();
+        private int maxKeys = 2;
+        private Policy policy = Policy.REJECT;
+        private MeterRegistry meterRegistry;
+
+        private Builder(String name, ComparableExpressionBase<?> tiebreaker) {
+            Assert.hasText(name, "Name must not be empty!");
+            Assert.notNull(tiebreaker, "Tiebreaker must not be null!");
+            this.name = name;
+            this.tiebreaker = tiebreaker;
+        }
+
+        public Builder allow(String property, ComparableExpressionBase<?> path) {
+            allowed.put(property, path);
+            return this;
+        }
+
+        /**
+         * tiebreaker 를 제외한 최대 정렬 키 개수
+         */
+        public Builder maxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+            return this;
+        }
+
+        public Builder policy(Policy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        public Builder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public SortPlanner build() {
+            return new SortPlanner(this);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 회원 insert / delete / 팀 변경 시 team.member_count 를 DB 에서 증감한다.
+ *
+ * 엔티티의 값을 덮어쓰지 않고 member_count = member_count + ? 로 갱신하므로 같은 팀에 동시에 추가해도 유실되지 않는다.
+ * 이벤트마다 바로 실행하지 않고 flush 동안 팀별 증감을 모았다가 flush 가 끝나면 팀마다 update 한 번으로 반영한다.
+ * (이벤트 중에 다른 문장을 실행하면 쌓이던 insert JDBC 배치가 그때마다 실행된다.)
+ * 같은 트랜잭션 안에서 실행되므로 롤백되면 함께 롤백된다.
+ * 벌크 연산(JPQL delete, 네이티브 SQL)은 이벤트가 없으므로 반영되지 않는다.
+ */
+public class TeamMemberCountListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    static final String INCREMENT_SQL = "update team set member_count = member_count + ? where team_id = ?";
+
+    // 세션별로 아직 반영하지 않은 팀 id -> 증감
+    private final Map<EventSource, Map<Long, Integer>> pending = new ConcurrentHashMap<>();
+
+    public static void register(EntityManagerFactory emf) {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        TeamMemberCountListener listener = new TeamMemberCountListener();
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        // 기본 flush 리스너 뒤에 실행된다. (insert 배치까지 모두 실행된 뒤)
+        registry.appendListeners(EventType.FLUSH, listener);
+        registry.appendListeners(EventType.AUTO_FLUSH, listener);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            collect(event.getSession(), ((Member) event.getEntity()).getTeam(), 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        // 스냅샷이 없는 update (준영속 엔티티 update) 는 이전 팀을 알 수 없으므로 건너뛴다.
+        if (!(event.getEntity() instanceof Member) || event.getOldState() == null) {
+            return;
+        }
+        int team = event.getPersister().getEntityMetamodel().getPropertyIndex("team");
+        Team oldTeam = (Team) event.getOldState()[team];
+        Team newTeam = (Team) event.getState()[team];
+        if (Objects.equals(idOf(oldTeam), idOf(newTeam))) {
+            return;
+        }
+        collect(event.getSession(), oldTeam, -1);
+        collect(event.getSession(), newTeam, 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            int team = event.getPersister().getEntityMetamodel().getPropertyIndex("team");
+            collect(event.getSession(), (Team) event.getDeletedState()[team], -1);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        apply(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        apply(event.getSession());
+    }
+
+    private void collect(EventSource session, Team team, int delta) {
+        Long teamId = idOf(team);
+        if (teamId == null) {
+            return;
+        }
+        pending.computeIfAbsent(session, key -> {
+            // flush 가 실패해서 반영하지 못한 증감은 트랜잭션이 끝날 때 버린다.
+            session.getActionQueue().registerProcess((success, completed) -> pending.remove(key));
+            // 팀 id 순서로 갱신해서 동시에 여러 팀을 갱신하는 트랜잭션끼리 교착되지 않게 한다.
+            return new TreeMap<>();
+        }).merge(teamId, delta, Integer::sum);
+    }
+
+    private void apply(EventSource session) {
+        Map<Long, Integer> deltas = pending.remove(session);
+        if (deltas == null) {
+            return;
+        }
+        deltas.forEach((teamId, delta) -> {
+            if (delta != 0) {
+                increment(session, teamId, delta);
+            }
+        });
+    }
+
+    private void increment(EventSource session, Long teamId, int delta) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(INCREMENT_SQL);
+        try {
+            statement.setInt(1, delta);
+            statement.setLong(2, teamId);
+            jdbcCoordinator.getResultSetReturn().executeUpdate(statement);
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "could not update team member count", INCREMENT_SQL);
+        } finally {
+            jdbcCoordinator.getResourceRegistry().release(statement);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+
+    // 프록시여도 초기화하지 않고 식별자만 읽는다.
+    private static Long idOf(Team team) {
+        return team != null ? team.getId() : null;
+    }
+}
@@ -0,0 +1,24 @@
+package study.querydsl.repository.support;
+
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * TeamMemberCountListener 를 기본 EntityManagerFactory 에 등록한다. (샤드는 MemberShards 에서 등록한다.)
+ */
+@Component
+public class TeamMemberCountListenerRegistrar {
+
+    private final EntityManagerFactory emf;
+
+    public TeamMemberCountListenerRegistrar(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    public void register() {
+        TeamMemberCountListener.register(emf);
+    }
+}
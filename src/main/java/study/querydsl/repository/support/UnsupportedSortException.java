@@ -0,0 +1,11 @@
+package study.querydsl.repository.support;
+
+/**
+ * SortPlanner 허용 목록에 없는 정렬을 요청했을 때 발생한다.
+ */
+public class UnsupportedSortException extends IllegalArgumentException {
+
+    public UnsupportedSortException(String message) {
+        super(message);
+    }
+}
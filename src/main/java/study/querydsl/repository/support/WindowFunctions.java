@@ -0,0 +1,48 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+
+/**
+ * CustomH2Dialect 에 등록한 윈도우 함수를 Querydsl 표현식으로 사용한다.
+ *
+ * <pre>
+ * queryFactory
+ *     .select(member.username, WindowFunctions.avgOver(member.age, member.team.id))
+ *     .from(member)
+ * </pre>
+ * 상관 서브쿼리(JPAExpressions)와 달리 회원 테이블을 한 번만 읽는다.
+ * 파티션 키로 연관 엔티티를 넘기면 조인이 생기므로 member.team.id 처럼 FK 값을 넘긴다.
+ */
+public final class WindowFunctions {
+
+    private WindowFunctions() {
+    }
+
+    public static NumberExpression<Double> avgOver(Expression<? extends Number> arg, Expression<?> partition) {
+        return Expressions.numberTemplate(Double.class, "function('avg_over', {0}, {1})", arg, partition);
+    }
+
+    public static <T extends Number & Comparable<?>> NumberExpression<T> maxOver(Expression<T> arg, Expression<?> partition) {
+        return Expressions.numberTemplate(arg.getType(), "function('max_over', {0}, {1})", arg, partition);
+    }
+
+    public static <T extends Number & Comparable<?>> NumberExpression<T> minOver(Expression<T> arg, Expression<?> partition) {
+        return Expressions.numberTemplate(arg.getType(), "function('min_over', {0}, {1})", arg, partition);
+    }
+
+    public static NumberExpression<Long> countOver(Expression<?> arg, Expression<?> partition) {
+        return Expressions.numberTemplate(Long.class, "function('count_over', {0}, {1})", arg, partition);
+    }
+
+    public static NumberExpression<Long> rankOver(Expression<?> partition, Expression<?> orderBy, boolean ascending) {
+        return Expressions.numberTemplate(Long.class,
+                ascending ? "function('rank_over', {0}, {1})" : "function('rank_over_desc', {0}, {1})", partition, orderBy);
+    }
+
+    public static NumberExpression<Long> rowNumberOver(Expression<?> partition, Expression<?> orderBy, boolean ascending) {
+        return Expressions.numberTemplate(Long.class,
+                ascending ? "function('row_number_over', {0}, {1})" : "function('row_number_over_desc', {0}, {1})", partition, orderBy);
+    }
+}
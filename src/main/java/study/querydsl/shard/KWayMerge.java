@@ -0,0 +1,58 @@
+package study.querydsl.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 각각 정렬된 샤드별 결과를 하나의 정렬된 결과로 합친다.
+ *
+ * 비교 결과가 같으면 앞 번호 샤드의 row 를 먼저 내보내므로 샤드마다 정렬이 안정적이면 합친 결과도 안정적이다.
+ */
+public final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    public static <T> List<T> merge(List<? extends List<T>> sortedLists, Comparator<? super T> comparator, long offset, int limit) {
+        PriorityQueue<Head<T>> heap = new PriorityQueue<>(Math.max(1, sortedLists.size()), (a, b) -> {
+            int result = comparator.compare(a.value, b.value);
+            return result != 0 ? result : Integer.compare(a.source, b.source);
+        });
+        for (int i = 0; i < sortedLists.size(); i++) {
+            Iterator<T> iterator = sortedLists.get(i).iterator();
+            if (iterator.hasNext()) {
+                heap.add(new Head<>(i, iterator.next(), iterator));
+            }
+        }
+
+        List<T> result = new ArrayList<>(Math.max(0, limit));
+        long skipped = 0;
+        while (!heap.isEmpty() && result.size() < limit) {
+            Head<T> head = heap.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(head.value);
+            }
+            if (head.rest.hasNext()) {
+                heap.add(new Head<>(head.source, head.rest.next(), head.rest));
+            }
+        }
+        return result;
+    }
+
+    private static final class Head<T> {
+        final int source;
+        final T value;
+        final Iterator<T> rest;
+
+        Head(int source, T value, Iterator<T> rest) {
+            this.source = source;
+            this.value = value;
+            this.rest = rest;
+        }
+    }
+}
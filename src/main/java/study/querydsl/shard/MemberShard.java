@@ -0,0 +1,64 @@
+package study.querydsl.shard;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import study.querydsl.repository.support.DeadlineJPAQueryFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import java.util.function.Function;
+
+/**
+ * 샤드 하나 (DataSource + EntityManagerFactory)
+ *
+ * 스프링 트랜잭션 매니저와 연결되지 않으므로 작업마다 EntityManager 를 열고 닫는다.
+ */
+public class MemberShard {
+
+    private final int index;
+    private final HikariDataSource dataSource;
+    private final EntityManagerFactory emf;
+
+    MemberShard(int index, HikariDataSource dataSource, EntityManagerFactory emf) {
+        this.index = index;
+        this.dataSource = dataSource;
+        this.emf = emf;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public <T> T read(Function<JPAQueryFactory, T> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return work.apply(new DeadlineJPAQueryFactory(em));
+        } finally {
+            em.close();
+        }
+    }
+
+    public <T> T write(Function<EntityManager, T> work) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            T result = work.apply(em);
+            tx.commit();
+            return result;
+        } catch (RuntimeException | Error e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    void close() {
+        emf.close();
+        dataSource.close();
+    }
+}
@@ -0,0 +1,158 @@
+package study.querydsl.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.orm.jpa.hibernate.SpringPhysicalNamingStrategy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.util.StringUtils;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.RequestDeadline;
+import study.querydsl.repository.support.TeamMemberCountListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 샤드 목록과 라우팅
+ *
+ * 팀 이름의 해시로 샤드를 정한다. (팀과 팀에 속한 회원은 항상 같은 샤드에 저장된다.)
+ * 팀이 없는 회원은 0번 샤드에 저장한다.
+ *
+ * 샤드 DataSource, EntityManagerFactory 는 빈으로 등록하지 않는다.
+ * (빈으로 등록하면 기본 DataSource, EntityManagerFactory 자동 설정이 꺼진다.)
+ */
+public class MemberShards implements AutoCloseable {
+
+    private final List<MemberShard> shards;
+    private final ExecutorService executor;
+
+    MemberShards(List<MemberShard> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("at least one shard is required");
+        }
+        this.shards = Collections.unmodifiableList(shards);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shards.size(), r -> {
+            Thread thread = new Thread(r, "member-shard-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static MemberShards create(ShardProperties properties) {
+        List<MemberShard> shards = new ArrayList<>();
+        try {
+            for (ShardProperties.Node node : properties.getDataSources()) {
+                shards.add(createShard(shards.size(), node, properties));
+            }
+        } catch (RuntimeException e) {
+            shards.forEach(MemberShard::close);
+            throw e;
+        }
+        return new MemberShards(shards);
+    }
+
+    private static MemberShard createShard(int index, ShardProperties.Node node, ShardProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("member-shard-" + index);
+        dataSource.setJdbcUrl(node.getUrl());
+        dataSource.setUsername(node.getUsername());
+        dataSource.setPassword(node.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+
+        Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put("hibernate.hbm2ddl.auto", properties.getDdlAuto());
+        // 기본 EntityManagerFactory 와 같은 테이블, 컬럼 이름(member_count ...)을 쓴다.
+        jpaProperties.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, SpringPhysicalNamingStrategy.class.getName());
+        jpaProperties.put(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName());
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setPersistenceUnitName("member-shard-" + index);
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan(Member.class.getPackage().getName());
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(jpaProperties);
+        try {
+            factory.afterPropertiesSet();
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+        TeamMemberCountListener.register(factory.getObject());
+        return new MemberShard(index, dataSource, factory.getObject());
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public MemberShard get(int index) {
+        return shards.get(index);
+    }
+
+    public MemberShard route(String teamName) {
+        return shards.get(indexOf(teamName));
+    }
+
+    public int indexOf(String teamName) {
+        if (!StringUtils.hasText(teamName)) {
+            return 0;
+        }
+        return Math.floorMod(teamName.hashCode(), shards.size());
+    }
+
+    /**
+     * 모든 샤드에서 병렬로 실행하고 샤드 순서대로 결과를 모은다.
+     * 하나라도 실패하면 나머지 작업을 취소하고 예외를 던진다.
+     */
+    public <T> List<T> scatter(Function<MemberShard, T> work) {
+        if (shards.size() == 1) {
+            return Collections.singletonList(work.apply(shards.get(0)));
+        }
+
+        List<Future<T>> futures = new ArrayList<>(shards.size());
+        for (MemberShard shard : shards) {
+            // 요청 기한은 스레드 로컬이므로 샤드 작업 스레드로 넘긴다.
+            futures.add(executor.submit(RequestDeadline.propagate(() -> work.apply(shard))));
+        }
+
+        List<T> results = new ArrayList<>(shards.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        shards.forEach(MemberShard::close);
+    }
+}
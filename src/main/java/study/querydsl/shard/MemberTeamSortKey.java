@@ -0,0 +1,55 @@
+package study.querydsl.shard;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 샤드 검색에서 허용하는 정렬 키
+ *
+ * DB 정렬과 병합 단계의 Comparator 가 같은 순서를 만들어야 하므로 null 은 항상 마지막으로 보낸다.
+ */
+enum MemberTeamSortKey {
+
+    MEMBER_ID("memberId", member.id, MemberTeamDto::getMemberId),
+    USERNAME("username", member.username, MemberTeamDto::getUsername),
+    AGE("age", member.age, MemberTeamDto::getAge),
+    TEAM_ID("teamId", team.id, MemberTeamDto::getTeamId),
+    TEAM_NAME("teamName", team.name, MemberTeamDto::getTeamName);
+
+    private final String property;
+    private final ComparableExpressionBase<?> path;
+    private final Function<MemberTeamDto, ? extends Comparable<?>> extractor;
+
+    MemberTeamSortKey(String property, ComparableExpressionBase<?> path, Function<MemberTeamDto, ? extends Comparable<?>> extractor) {
+        this.property = property;
+        this.path = path;
+        this.extractor = extractor;
+    }
+
+    static MemberTeamSortKey of(String property) {
+        for (MemberTeamSortKey key : values()) {
+            if (key.property.equals(property)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("unsupported sort property: " + property);
+    }
+
+    OrderSpecifier<?> orderSpecifier(boolean ascending) {
+        OrderSpecifier<?> specifier = ascending ? path.asc() : path.desc();
+        return specifier.nullsLast();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Comparator<MemberTeamDto> comparator(boolean ascending) {
+        Comparator<Comparable> order = ascending ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        return Comparator.comparing((Function<MemberTeamDto, Comparable>) (Function) extractor, Comparator.nullsLast(order));
+    }
+}
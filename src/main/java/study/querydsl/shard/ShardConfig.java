@@ -0,0 +1,25 @@
+package study.querydsl.shard;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * querydsl.shard.enabled=true 일 때만 샤드 저장소를 등록한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "querydsl.shard", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardConfig {
+
+    @Bean(destroyMethod = "close")
+    public MemberShards memberShards(ShardProperties shardProperties) {
+        return MemberShards.create(shardProperties);
+    }
+
+    @Bean
+    public ShardedMemberRepository shardedMemberRepository(MemberShards memberShards) {
+        return new ShardedMemberRepository(memberShards);
+    }
+}
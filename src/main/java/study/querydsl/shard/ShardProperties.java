@@ -0,0 +1,49 @@
+package study.querydsl.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 샤드 DataSource 설정 (querydsl.shard.*)
+ *
+ * <pre>
+ * querydsl:
+ *   shard:
+ *     enabled: true
+ *     ddl-auto: create
+ *     data-sources:
+ *       - url: jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1
+ *       - url: jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1
+ * </pre>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "querydsl.shard")
+public class ShardProperties {
+
+    private boolean enabled;
+
+    /**
+     * 샤드별 hibernate.hbm2ddl.auto 값
+     */
+    private String ddlAuto = "none";
+
+    /**
+     * 샤드별 커넥션 풀 크기
+     */
+    private int maximumPoolSize = 5;
+
+    private List<Node> dataSources = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Node {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+    }
+}
@@ -0,0 +1,186 @@
+package study.querydsl.shard;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 샤드된 회원 검색 (scatter-gather)
+ *
+ * 검색 조건에 팀 이름이 있으면 그 팀의 샤드 하나만 조회하고, 없으면 모든 샤드를 병렬로 조회한다.
+ * 페이지 조회는 샤드마다 offset + size 건을 같은 정렬로 가져와 k-way 병합한 뒤 offset 만큼 건너뛴다.
+ * (offset 이 클수록 샤드마다 읽는 양이 늘어나므로 깊은 페이지에는 적합하지 않다.)
+ * 전체 건수는 샤드별 count 의 합이다.
+ *
+ * 식별자는 샤드마다 따로 생성되므로 샤드가 다르면 memberId, teamId 가 겹칠 수 있다.
+ */
+public class ShardedMemberRepository {
+
+    private final MemberShards shards;
+
+    public ShardedMemberRepository(MemberShards shards) {
+        this.shards = shards;
+    }
+
+    public Team saveTeam(Team team) {
+        return shards.route(team.getName()).write(em -> {
+            em.persist(team);
+            return team;
+        });
+    }
+
+    /**
+     * 회원은 소속 팀과 같은 샤드에 저장한다. 팀은 먼저 saveTeam 으로 저장되어 있어야 한다.
+     */
+    public Member saveMember(Member member) {
+        Team memberTeam = member.getTeam();
+        MemberShard shard = shards.route(memberTeam != null ? memberTeam.getName() : null);
+        return shard.write(em -> {
+            if (memberTeam != null) {
+                // 영속 상태의 팀 참조로 바꾼다. (인원 수는 TeamMemberCountListener 가 DB 에서 증가시킨다.)
+                member.setTeam(em.getReference(Team.class, memberTeam.getId()));
+            }
+            em.persist(member);
+            return member;
+        });
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        if (StringUtils.hasText(condition.getTeamName())) {
+            return shards.route(condition.getTeamName()).read(queryFactory -> contentQuery(queryFactory, condition).fetch());
+        }
+
+        List<MemberTeamDto> result = new ArrayList<>();
+        shards.scatter(shard -> shard.read(queryFactory -> contentQuery(queryFactory, condition).fetch()))
+                .forEach(result::addAll);
+        return result;
+    }
+
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamSortKey> keys = new ArrayList<>();
+        List<Boolean> directions = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            keys.add(MemberTeamSortKey.of(order.getProperty()));
+            directions.add(order.isAscending());
+        }
+        // 샤드 안에서의 순서를 고정하기 위해 memberId 를 마지막 정렬 키로 붙인다.
+        keys.add(MemberTeamSortKey.MEMBER_ID);
+        directions.add(true);
+
+        OrderSpecifier<?>[] orderSpecifiers = new OrderSpecifier<?>[keys.size()];
+        Comparator<MemberTeamDto> comparator = null;
+        for (int i = 0; i < keys.size(); i++) {
+            orderSpecifiers[i] = keys.get(i).orderSpecifier(directions.get(i));
+            Comparator<MemberTeamDto> next = keys.get(i).comparator(directions.get(i));
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        long fetchSize = pageable.getOffset() + pageable.getPageSize();
+        List<ShardPage> shardPages;
+        if (StringUtils.hasText(condition.getTeamName())) {
+            MemberShard shard = shards.route(condition.getTeamName());
+            shardPages = List.of(fetchPage(shard, condition, orderSpecifiers, fetchSize));
+        } else {
+            shardPages = shards.scatter(shard -> fetchPage(shard, condition, orderSpecifiers, fetchSize));
+        }
+
+        List<List<MemberTeamDto>> contents = new ArrayList<>(shardPages.size());
+        long total = 0;
+        for (ShardPage shardPage : shardPages) {
+            contents.add(shardPage.content);
+            total += shardPage.total;
+        }
+        List<MemberTeamDto> merged = KWayMerge.merge(contents, comparator, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(merged, pageable, total);
+    }
+
+    private ShardPage fetchPage(MemberShard shard, MemberSearchCondition condition, OrderSpecifier<?>[] orderSpecifiers, long fetchSize) {
+        return shard.read(queryFactory -> {
+            List<MemberTeamDto> content = contentQuery(queryFactory, condition)
+                    .orderBy(orderSpecifiers)
+                    .limit(fetchSize)
+                    .fetch();
+            // 앞 페이지에서 가져온 건수가 fetchSize 보다 작으면 그 건수가 샤드의 전체 건수다.
+            long total = content.size() < fetchSize ? content.size() : countQuery(queryFactory, condition);
+            return new ShardPage(content, total);
+        });
+    }
+
+    private JPAQuery<MemberTeamDto> contentQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                );
+    }
+
+    private long countQuery(JPAQueryFactory queryFactory, MemberSearchCondition condition) {
+        Long count = queryFactory
+                .select(member.count())
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .fetchOne();
+        return count != null ? count : 0L;
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    private static final class ShardPage {
+        final List<MemberTeamDto> content;
+        final long total;
+
+        ShardPage(List<MemberTeamDto> content, long total) {
+            this.content = content;
+            this.total = total;
+        }
+    }
+}
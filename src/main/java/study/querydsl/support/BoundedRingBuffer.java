@@ -0,0 +1,109 @@
+package study.querydsl.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 락을 사용하지 않는 고정 크기 링 버퍼 (다중 생산자 / 다중 소비자)
+ *
+ * 슬롯마다 시퀀스 번호를 두고 생산자, 소비자가 CAS 로 위치를 선점한다. (Vyukov bounded MPMC queue)
+ * 버퍼가 가득 차면 offer 는 기다리지 않고 false 를 반환하므로, 버릴지 다시 시도할지는 호출하는 쪽이 정한다.
+ * 용량은 2 의 거듭제곱으로 올림한다.
+ */
+public class BoundedRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public BoundedRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // 시퀀스를 마지막에 써서 소비자가 원소를 읽을 수 있게 공개한다.
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+            // diff > 0 : 다른 생산자가 먼저 선점했으므로 다시 읽는다.
+        }
+    }
+
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T element = elements.get(index);
+                    elements.lazySet(index, null);
+                    // 한 바퀴 뒤의 생산자가 이 슬롯을 쓸 수 있도록 연다.
+                    sequences.lazySet(index, position + mask + 1);
+                    return element;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 최대 maxElements 개를 꺼내 consumer 에 넘기고 꺼낸 개수를 반환한다.
+     */
+    public int drain(Consumer<? super T> consumer, int maxElements) {
+        int count = 0;
+        T element;
+        while (count < maxElements && (element = poll()) != null) {
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 동시에 변경되는 중에는 근사값이다.
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
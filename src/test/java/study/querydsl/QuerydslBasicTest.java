@@ -25,11 +25,13 @@ import study.querydsl.dto.UserDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.WindowFunctions;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceUnit;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static study.querydsl.entity.QMember.member;
@@ -513,6 +515,53 @@ public class QuerydslBasicTest {
         }
     }
 
+    /**
+     * 윈도우 함수
+     * 상관 서브쿼리 대신 팀별 평균 나이, 팀 안에서의 나이 순위를 한 번에 조회
+     */
+    @Test
+    public void windowFunction() {
+        NumberExpression<Double> teamAvgAge = WindowFunctions.avgOver(member.age, member.team.id);
+        NumberExpression<Long> teamAgeRank = WindowFunctions.rankOver(member.team.id, member.age, false);
+
+        List<Tuple> result = queryFactory
+                .select(member.username, teamAvgAge, teamAgeRank)
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        for (Tuple tuple : result) {
+            System.out.println("username = " + tuple.get(member.username)
+                    + ", teamAvgAge = " + tuple.get(teamAvgAge)
+                    + ", teamAgeRank = " + tuple.get(teamAgeRank));
+        }
+
+        Assertions.assertThat(result).extracting(tuple -> tuple.get(teamAvgAge)).containsExactly(15.0, 15.0, 35.0, 35.0);
+        Assertions.assertThat(result).extracting(tuple -> tuple.get(teamAgeRank)).containsExactly(2L, 1L, 2L, 1L);
+    }
+
+    /**
+     * 윈도우 함수
+     * 팀에서 가장 나이가 많은 회원 (subQuery 의 팀별 버전)
+     */
+    @Test
+    public void windowFunctionMax() {
+        NumberExpression<Integer> teamMaxAge = WindowFunctions.maxOver(member.age, member.team.id);
+
+        List<Tuple> result = queryFactory
+                .select(member.username, member.age, teamMaxAge)
+                .from(member)
+                .fetch();
+
+        List<String> oldest = new ArrayList<>();
+        for (Tuple tuple : result) {
+            if (tuple.get(member.age).equals(tuple.get(teamMaxAge))) {
+                oldest.add(tuple.get(member.username));
+            }
+        }
+        Assertions.assertThat(oldest).containsExactlyInAnyOrder("member2", "member4");
+    }
+
     @Test
     public void basicCase() {
         List<String> result = queryFactory
@@ -0,0 +1,160 @@
+package study.querydsl.batch;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static study.querydsl.batch.QBatchJobCheckpoint.batchJobCheckpoint;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 청크마다 커밋하므로 @Transactional 을 쓰지 않고 직접 정리한다.
+ */
+@SpringBootTest
+class MemberBatchJobRunnerTest {
+
+    static final int MEMBER_COUNT = 25;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberBatchJobRunner runner;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                em.persist(new Member("batch" + i, 10));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("batch")).execute();
+            queryFactory.delete(batchJobCheckpoint).where(batchJobCheckpoint.jobName.startsWith("test-")).execute();
+        });
+    }
+
+    @Test
+    public void processInChunks() {
+        MemberBatchJob job = MemberBatchJob.builder("test-age", (item, em) -> item.setAge(item.getAge() + 1))
+                .chunkSize(10)
+                .condition(member.username.startsWith("batch"))
+                .build();
+
+        BatchJobResult result = runner.run(job);
+        System.out.println("result = " + result);
+
+        Assertions.assertThat(result.getProcessed()).isEqualTo(MEMBER_COUNT);
+        Assertions.assertThat(result.getChunks()).isEqualTo(3);
+        Assertions.assertThat(ages()).containsOnly(11);
+        Assertions.assertThat(runner.checkpoints("test-age")).extracting("completed").containsExactly(true);
+    }
+
+    @Test
+    public void restartFromLastCommittedChunk() {
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+        boolean[] fail = {true};
+        MemberBatchJob job = MemberBatchJob.builder("test-restart", (item, em) -> {
+                    if (fail[0] && item.getUsername().equals("batch15")) {
+                        throw new IllegalStateException("failed on " + item.getUsername());
+                    }
+                    processed.add(item.getUsername());
+                    item.setAge(item.getAge() + 1);
+                })
+                .chunkSize(10)
+                .condition(member.username.startsWith("batch"))
+                .build();
+
+        Assertions.assertThatThrownBy(() -> runner.run(job)).isInstanceOf(BatchJobException.class);
+        // 첫 번째 청크만 커밋되고 실패한 청크(batch10 ~ batch19)는 롤백된다.
+        Assertions.assertThat(runner.checkpoints("test-restart")).extracting("processed").containsExactly(10L);
+
+        fail[0] = false;
+        processed.clear();
+        BatchJobResult result = runner.run(job);
+
+        Assertions.assertThat(result.isResumed()).isTrue();
+        Assertions.assertThat(result.getProcessed()).isEqualTo(15);
+        Assertions.assertThat(processed).doesNotContain("batch0", "batch9").contains("batch10", "batch24");
+        Assertions.assertThat(ages()).containsOnly(11);
+    }
+
+    @Test
+    public void doNotRerunCompletedJob() {
+        MemberBatchJob job = MemberBatchJob.builder("test-completed", (item, em) -> item.setAge(item.getAge() + 1))
+                .chunkSize(10)
+                .condition(member.username.startsWith("batch"))
+                .build();
+        runner.run(job);
+
+        // 완료된 작업을 다시 실행해도 처리하지 않는다.
+        BatchJobResult again = runner.run(job);
+        Assertions.assertThat(again.isAlreadyCompleted()).isTrue();
+        Assertions.assertThat(again.isResumed()).isFalse();
+        Assertions.assertThat(again.getProcessed()).isZero();
+        Assertions.assertThat(ages()).containsOnly(11);
+        Assertions.assertThat(runner.checkpoints("test-completed")).extracting("processed").containsExactly((long) MEMBER_COUNT);
+
+        // rerun 이면 범위를 다시 나눠서 처음부터 처리한다.
+        MemberBatchJob rerun = MemberBatchJob.builder("test-completed", (item, em) -> item.setAge(item.getAge() + 1))
+                .chunkSize(10)
+                .condition(member.username.startsWith("batch"))
+                .rerun(true)
+                .build();
+        BatchJobResult result = runner.run(rerun);
+        Assertions.assertThat(result.isAlreadyCompleted()).isFalse();
+        Assertions.assertThat(result.getProcessed()).isEqualTo(MEMBER_COUNT);
+        Assertions.assertThat(ages()).containsOnly(12);
+    }
+
+    @Test
+    public void processPartitionsInParallel() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        MemberBatchJob job = MemberBatchJob.builder("test-parallel", (item, em) -> {
+                    threads.add(Thread.currentThread().getName());
+                    item.setAge(item.getAge() + 1);
+                })
+                .chunkSize(4)
+                .parallelism(3)
+                .condition(member.username.startsWith("batch"))
+                .build();
+
+        BatchJobResult result = runner.run(job);
+        System.out.println("result = " + result + ", threads = " + threads);
+
+        Assertions.assertThat(result.getPartitions()).isEqualTo(3);
+        Assertions.assertThat(result.getProcessed()).isEqualTo(MEMBER_COUNT);
+        Assertions.assertThat(threads).hasSize(3);
+        Assertions.assertThat(ages()).containsOnly(11);
+        Assertions.assertThat(runner.checkpoints("test-parallel")).extracting("completed").containsOnly(true);
+    }
+
+    private List<Integer> ages() {
+        return transactionTemplate.execute(status -> queryFactory
+                .select(member.age)
+                .from(member)
+                .where(member.username.startsWith("batch"))
+                .fetch());
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import study.querydsl.controller.support.MemberTeamColumnarCodec;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 같은 회원 목록을 JSON, 컬럼 형식(application/x-member-columnar)으로 직렬화했을 때의 크기와 시간
+ * (./gradlew benchmark -Pload.members=100000)
+ */
+@Tag("benchmark")
+class ColumnarEncodingBenchmarkTest {
+
+    static final int MEMBERS = Integer.getInteger("load.members", 10_000);
+    static final int ROUNDS = 20;
+
+    @Test
+    public void columnarVersusJson() throws Exception {
+        List<MemberTeamDto> rows = new ArrayList<>(MEMBERS);
+        for (int i = 0; i < MEMBERS; i++) {
+            long teamId = i % 2 == 0 ? 1L : 2L;
+            rows.add(new MemberTeamDto((long) i, "member" + i, i % 100, teamId, teamId == 1L ? "teamA" : "teamB"));
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        int jsonBytes = 0;
+        int columnarBytes = 0;
+        long jsonNanos = 0;
+        long columnarNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            jsonBytes = objectMapper.writeValueAsBytes(rows).length;
+            jsonNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MemberTeamColumnarCodec.encode(rows, out);
+            columnarBytes = out.size();
+            columnarNanos += System.nanoTime() - start;
+        }
+
+        System.out.println("members = " + MEMBERS);
+        System.out.println("json     : " + jsonBytes + " bytes, " + jsonNanos / ROUNDS / 1_000 + " us");
+        System.out.println("columnar : " + columnarBytes + " bytes, " + columnarNanos / ROUNDS / 1_000 + " us");
+    }
+}
@@ -0,0 +1,141 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 영속성 컨텍스트 크기에 따른 flush 시간
+ * 관리 중인 회원 중 한 명만 변경하고 flush 한다.
+ * 바이트코드 향상(dirty tracking)이 적용되면 변경된 엔티티만 확인하므로 크기와 거의 무관해야 한다.
+ *
+ * 향상 여부는 빌드할 때 정해지므로 두 번 실행해서 비교한다. 실행할 때마다 결과를 benchmark.report-dir 에 남기고,
+ * 두 결과가 모두 있으면 나란히 출력한다.
+ * ./gradlew benchmark --tests '*FlushCostBenchmarkTest' -Pno.enhance
+ * ./gradlew benchmark --tests '*FlushCostBenchmarkTest'
+ * (-Pload.members=100000 으로 최대 크기를 바꿀 때는 두 번 모두 같은 값을 준다.)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class FlushCostBenchmarkTest {
+
+    static final int MAX_MEMBERS = Integer.getInteger("load.members", 50_000);
+    static final int FLUSHES = 20;
+    static final Path REPORT_DIR = Paths.get(System.getProperty("benchmark.report-dir", "build/benchmark"));
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void flushAsPersistenceContextGrows() throws IOException {
+        Team team = new Team("teamA");
+        em.persist(team);
+        for (int i = 0; i < MAX_MEMBERS; i++) {
+            em.persist(new Member("member" + i, i % 100, team));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+                team = em.find(Team.class, team.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        // 관리 중인 회원 수 -> 평균 flush 시간(ms)
+        Map<Integer, Double> series = new LinkedHashMap<>();
+        for (int size = 1_000; size < MAX_MEMBERS; size *= 10) {
+            measure(size, series);
+        }
+        measure(MAX_MEMBERS, series);
+
+        // -Pno.enhance 값이 아니라 실제로 로딩된 엔티티 클래스로 판단한다.
+        writeSeries(SelfDirtinessTracker.class.isAssignableFrom(Member.class), series);
+        report();
+    }
+
+    private void measure(int size, Map<Integer, Double> series) {
+        List<Member> members = new JPAQueryFactory(em)
+                .selectFrom(member)
+                .orderBy(member.id.asc())
+                .limit(size)
+                .fetch();
+
+        long totalNanos = 0;
+        for (int i = 0; i < FLUSHES; i++) {
+            members.get(i % members.size()).setAge(i);
+            long start = System.nanoTime();
+            em.flush();
+            totalNanos += System.nanoTime() - start;
+        }
+
+        double avgMillis = totalNanos / (double) FLUSHES / 1_000_000;
+        System.out.println("managed = " + members.size()
+                + ", enhanced = " + (members.get(0) instanceof SelfDirtinessTracker)
+                + ", flush avg = " + String.format("%.3f", avgMillis) + " ms");
+        series.put(members.size(), avgMillis);
+        em.clear();
+    }
+
+    private void writeSeries(boolean enhanced, Map<Integer, Double> series) throws IOException {
+        List<String> lines = new ArrayList<>();
+        series.forEach((managed, avgMillis) -> lines.add(managed + "," + avgMillis));
+        Files.createDirectories(REPORT_DIR);
+        Files.write(seriesFile(enhanced), lines);
+    }
+
+    // 다른 빌드에서 남긴 결과가 있으면 향상 전후를 나란히 출력한다.
+    private void report() throws IOException {
+        if (!Files.exists(seriesFile(false)) || !Files.exists(seriesFile(true))) {
+            System.out.println("flush cost comparison needs both runs (with and without -Pno.enhance), report dir = " + REPORT_DIR);
+            return;
+        }
+        Map<Integer, Double> unenhanced = readSeries(seriesFile(false));
+        Map<Integer, Double> enhanced = readSeries(seriesFile(true));
+
+        System.out.println(String.format("%10s %18s %18s", "managed", "unenhanced (ms)", "enhanced (ms)"));
+        Set<Integer> sizes = new TreeSet<>(unenhanced.keySet());
+        sizes.addAll(enhanced.keySet());
+        for (Integer managed : sizes) {
+            System.out.println(String.format("%10d %18s %18s", managed, format(unenhanced.get(managed)), format(enhanced.get(managed))));
+        }
+    }
+
+    private Map<Integer, Double> readSeries(Path file) throws IOException {
+        Map<Integer, Double> series = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            String[] columns = line.split(",");
+            series.put(Integer.valueOf(columns[0]), Double.valueOf(columns[1]));
+        }
+        return series;
+    }
+
+    private Path seriesFile(boolean enhanced) {
+        return REPORT_DIR.resolve(enhanced ? "flush-cost-enhanced.csv" : "flush-cost-unenhanced.csv");
+    }
+
+    // -Pload.members 를 다르게 줘서 한쪽에만 있는 크기는 비워 둔다.
+    private String format(Double avgMillis) {
+        return avgMillis == null ? "-" : String.format("%.3f", avgMillis);
+    }
+}
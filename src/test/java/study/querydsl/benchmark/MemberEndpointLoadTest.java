@@ -0,0 +1,224 @@
+package study.querydsl.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * /v1 ~ /v4/members 부하 테스트 (./gradlew benchmark -Pload.rate=500)
+ *
+ * 고정 도착률(open model)로 요청을 보낸다. 응답 시간은 요청을 보내야 했던 시각(intended start)부터 재므로
+ * 서버가 밀려서 요청이 늦게 나간 시간도 포함된다. (coordinated omission 보정)
+ * 결과는 build/reports/load 에 커밋 간 비교할 수 있는 고정 형식으로 남긴다.
+ *
+ * 설정 (시스템 프로퍼티)
+ * - load.members  : 회원 수 (기본 10000)
+ * - load.teams    : 팀 수 (기본 10)
+ * - load.rate     : 초당 요청 수 (기본 200)
+ * - load.warmup   : 워밍업 시간(초, 기본 5)
+ * - load.duration : 측정 시간(초, 기본 30)
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info"
+})
+class MemberEndpointLoadTest {
+
+    static final int MEMBERS = Integer.getInteger("load.members", 10_000);
+    static final int TEAMS = Integer.getInteger("load.teams", 10);
+    static final int RATE = Integer.getInteger("load.rate", 200);
+    static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 5);
+    static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void seed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < TEAMS; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+            for (int i = 0; i < MEMBERS; i++) {
+                em.persist(new Member("member" + i, i % 100, teams.get(i % TEAMS)));
+                if (i % 1_000 == 0) {
+                    // 영속성 컨텍스트가 데이터 크기만큼 커지지 않도록 비우고, 팀은 다시 조회해서 관리 상태로 쓴다.
+                    em.flush();
+                    em.clear();
+                    teams.replaceAll(team -> em.find(Team.class, team.getId()));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void openModelLoad() throws Exception {
+        List<LoadRequest> mix = requestMix();
+
+        run(mix, WARMUP_SECONDS);
+        recorders.values().forEach(Recorder::getIntervalHistogram);
+        errors.values().forEach(LongAdder::reset);
+
+        long start = System.nanoTime();
+        run(mix, DURATION_SECONDS);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        report(elapsedSeconds);
+    }
+
+    /**
+     * 엔드포인트별 가중치를 둔 요청 목록. 같은 엔드포인트를 여러 번 넣어 비율을 조절한다.
+     */
+    private List<LoadRequest> requestMix() {
+        List<LoadRequest> mix = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            mix.add(new LoadRequest("v1", "/v1/members?teamName=team" + i));
+        }
+        mix.add(new LoadRequest("v1-fields", "/v1/members?fields=username,age&ageGoe=90"));
+        int lastPage = Math.max(1, MEMBERS / 20 - 1);
+        for (int i = 0; i < 4; i++) {
+            mix.add(new LoadRequest("v2", "/v2/members?page=" + (i * lastPage / 4) + "&size=20"));
+            mix.add(new LoadRequest("v3", "/v3/members?teamName=team" + i + "&page=1&size=20"));
+            mix.add(new LoadRequest("v4", "/v4/members?ageGoe=" + (i * 20) + "&ageLoe=" + (i * 20 + 10) + "&page=0&size=50"));
+        }
+        return mix;
+    }
+
+    private void run(List<LoadRequest> mix, int seconds) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(128);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long total = (long) RATE * seconds;
+        long start = System.nanoTime();
+
+        try {
+            for (long i = 0; i < total; i++) {
+                long intendedStart = start + i * intervalNanos;
+                long delay = intendedStart - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                LoadRequest request = mix.get(ThreadLocalRandom.current().nextInt(mix.size()));
+                workers.execute(() -> send(request, intendedStart));
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void send(LoadRequest request, long intendedStart) {
+        boolean success;
+        try {
+            HttpRequest httpRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + request.path))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            HttpResponse<Void> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (Exception e) {
+            success = false;
+        }
+
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+        recorders.computeIfAbsent(request.name, name -> new Recorder(HIGHEST_TRACKABLE_MICROS, 3))
+                .recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            errors.computeIfAbsent(request.name, name -> new LongAdder()).increment();
+        }
+    }
+
+    private void report(double elapsedSeconds) throws Exception {
+        File dir = new File("build/reports/load");
+        dir.mkdirs();
+
+        Map<String, Histogram> histograms = new TreeMap<>();
+        recorders.forEach((name, recorder) -> histograms.put(name, recorder.getIntervalHistogram()));
+
+        try (PrintStream summary = new PrintStream(new FileOutputStream(new File(dir, "member-endpoints.txt")), true, StandardCharsets.UTF_8.name())) {
+            summary.printf("# members=%d teams=%d rate=%d/s duration=%ds%n", MEMBERS, TEAMS, RATE, DURATION_SECONDS);
+            summary.printf("%-10s %10s %10s %10s %10s %10s %10s %8s%n",
+                    "endpoint", "count", "req/s", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "errors");
+            for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+                Histogram histogram = entry.getValue();
+                long errorCount = errors.getOrDefault(entry.getKey(), new LongAdder()).sum();
+                summary.printf("%-10s %10d %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                        entry.getKey(),
+                        histogram.getTotalCount(),
+                        histogram.getTotalCount() / elapsedSeconds,
+                        histogram.getValueAtPercentile(50) / 1000.0,
+                        histogram.getValueAtPercentile(99) / 1000.0,
+                        histogram.getValueAtPercentile(99.9) / 1000.0,
+                        histogram.getMaxValue() / 1000.0,
+                        errorCount);
+
+                try (PrintStream hgrm = new PrintStream(new FileOutputStream(new File(dir, entry.getKey() + ".hgrm")), true, StandardCharsets.UTF_8.name())) {
+                    histogram.outputPercentileDistribution(hgrm, 1000.0);
+                }
+            }
+        }
+
+        System.out.println(new String(Files.readAllBytes(new File(dir, "member-endpoints.txt").toPath()), StandardCharsets.UTF_8));
+    }
+
+    static class LoadRequest {
+
+        final String name;
+        final String path;
+
+        LoadRequest(String name, String path) {
+            this.name = name;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSqlRepository;
+
+import javax.persistence.EntityManager;
+import java.util.function.Supplier;
+
+/**
+ * JPA(JPQL -> Hibernate -> DTO) 와 querydsl-sql(JDBC -> DTO) 검색 시간 비교
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class MemberSqlRepositoryBenchmarkTest {
+
+    static final int MEMBER_COUNT = Integer.getInteger("load.members", 20_000);
+    static final int WARMUP = 50;
+    static final int ITERATIONS = 200;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberSqlRepository memberSqlRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+                teamA = em.find(Team.class, teamA.getId());
+                teamB = em.find(Team.class, teamB.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void search() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(50);
+
+        measure("jpa  search", () -> memberRepository.search(condition).size());
+        measure("sql  search", () -> memberSqlRepository.search(condition).size());
+
+        PageRequest pageable = PageRequest.of(3, 100);
+        measure("jpa  page  ", () -> memberRepository.searchPageComplexOptimization(condition, pageable).getNumberOfElements());
+        measure("sql  page  ", () -> memberSqlRepository.searchPageComplexOptimization(condition, pageable).getNumberOfElements());
+    }
+
+    private void measure(String name, Supplier<Integer> search) {
+        for (int i = 0; i < WARMUP; i++) {
+            search.get();
+            em.clear();
+        }
+        long start = System.nanoTime();
+        int rows = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            rows = search.get();
+            em.clear();
+        }
+        long micros = (System.nanoTime() - start) / 1_000 / ITERATIONS;
+        System.out.println(name + " : rows = " + rows + ", " + micros + " us/op");
+    }
+}
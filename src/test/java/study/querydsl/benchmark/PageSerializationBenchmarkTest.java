@@ -0,0 +1,69 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.controller.support.MemberTeamPageHttpMessageConverter;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 기본 Jackson(PageImpl 빈 직렬화)과 스트리밍 컨버터(MemberTeamPageHttpMessageConverter)의 출력 크기, 소요 시간 비교
+ * (./gradlew benchmark)
+ */
+@Tag("benchmark")
+class PageSerializationBenchmarkTest {
+
+    static final int WARMUP = 2_000;
+    static final int ITERATIONS = 20_000;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void jacksonVersusStreaming() throws Exception {
+        Page<MemberTeamDto> page = createPage(100, 100_000);
+
+        for (int i = 0; i < WARMUP; i++) {
+            objectMapper.writeValueAsBytes(page);
+            write(page);
+        }
+
+        long start = System.nanoTime();
+        int jacksonBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            jacksonBytes = objectMapper.writeValueAsBytes(page).length;
+        }
+        long jacksonNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int streamingBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            streamingBytes = write(page).length;
+        }
+        long streamingNanos = System.nanoTime() - start;
+
+        System.out.println("jackson   : " + jacksonNanos / ITERATIONS + " ns/page, " + jacksonBytes + " bytes");
+        System.out.println("streaming : " + streamingNanos / ITERATIONS + " ns/page, " + streamingBytes + " bytes");
+    }
+
+    private byte[] write(Page<MemberTeamDto> page) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberTeamPageHttpMessageConverter.write(page, out);
+        return out.toByteArray();
+    }
+
+    private Page<MemberTeamDto> createPage(int size, long total) {
+        List<MemberTeamDto> content = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long teamId = i % 2 == 0 ? 1L : 2L;
+            content.add(new MemberTeamDto((long) i, "member" + i, i, teamId, teamId == 1L ? "teamA" : "teamB"));
+        }
+        return new PageImpl<>(content, PageRequest.of(0, size), total);
+    }
+}
@@ -0,0 +1,78 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberTestRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 읽기 전용 조회(MemberTestRepository)와 일반 조회의 flush 시간, 힙 사용량 비교
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class ReadOnlyQueryBenchmarkTest {
+
+    static final int MEMBER_COUNT = 50_000;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        Team team = new Team("teamA");
+        em.persist(team);
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            em.persist(new Member("member" + i, i % 100, team));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+                team = em.find(Team.class, team.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void flushAndHeap() {
+        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+
+        measure("managed  ", () -> queryFactory.selectFrom(member).fetch());
+        measure("read-only", () -> memberTestRepository.basicSelect());
+    }
+
+    private void measure(String name, Supplier<List<Member>> query) {
+        long before = usedHeap();
+        List<Member> result = query.get();
+        long heap = usedHeap() - before;
+
+        long start = System.nanoTime();
+        em.flush();
+        long flushMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(name + " : rows = " + result.size() + ", heap = " + heap / 1024 + " KB, flush = " + flushMillis + " ms");
+        em.clear();
+    }
+
+    private long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
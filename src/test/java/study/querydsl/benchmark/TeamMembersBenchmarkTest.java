@@ -0,0 +1,79 @@
+package study.querydsl.benchmark;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 인원이 많은 팀에 회원을 추가할 때 members 컬렉션 초기화 여부에 따른 시간, 쿼리 수 비교
+ * (./gradlew benchmark -Pload.team-members=100000)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class TeamMembersBenchmarkTest {
+
+    static final int TEAM_MEMBERS = Integer.getInteger("load.team-members", 100_000);
+    static final int ADDS = 100;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        Team team = new Team("bigTeam");
+        em.persist(team);
+        teamId = team.getId();
+        for (int i = 0; i < TEAM_MEMBERS; i++) {
+            em.persist(new Member("member" + i, i % 100, team));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+                team = em.find(Team.class, teamId);
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void addMembers() {
+        measure("extra-lazy ", false);
+        measure("initialized", true);
+    }
+
+    private void measure(String name, boolean initialize) {
+        sqlStatementCounter.reset();
+        long start = System.nanoTime();
+
+        Team team = em.find(Team.class, teamId);
+        if (initialize) {
+            // 변경 전 동작 (team.getMembers() 를 읽은 뒤 추가)
+            Hibernate.initialize(team.getMembers());
+        }
+        for (int i = 0; i < ADDS; i++) {
+            em.persist(new Member("new" + i, 20, team));
+        }
+        int memberCount = team.getMemberCount();
+        em.flush();
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(name + " : members = " + memberCount + ", adds = " + ADDS + ", " + millis + " ms, selects = "
+                + sqlStatementCounter.getSelectCount() + ", initialized = " + Hibernate.isInitialized(team.getMembers()));
+        em.clear();
+    }
+}
@@ -0,0 +1,140 @@
+package study.querydsl.change;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 커밋 후 발행을 확인해야 하므로 @Transactional 을 쓰지 않고 TransactionTemplate 으로 커밋한다.
+ */
+@SpringBootTest
+class ChangeEventBusTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    RecordingSubscriber subscriber;
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("change")).execute();
+            queryFactory.delete(team).where(team.name.eq("changeTeam")).execute();
+        });
+        subscriber.changes.clear();
+    }
+
+    @Test
+    public void publishAfterCommit() throws Exception {
+        Long memberId = transactionTemplate.execute(status -> {
+            Team changeTeam = new Team("changeTeam");
+            em.persist(changeTeam);
+            Member changeMember = new Member("change1", 10, changeTeam);
+            em.persist(changeMember);
+            return changeMember.getId();
+        });
+
+        transactionTemplate.executeWithoutResult(status -> em.find(Member.class, memberId).setAge(20));
+
+        List<EntityChange> changes = await(3);
+        Assertions.assertThat(changes).extracting("type", "entityType")
+                .contains(
+                        Assertions.tuple(ChangeType.INSERT, Team.class),
+                        Assertions.tuple(ChangeType.INSERT, Member.class),
+                        Assertions.tuple(ChangeType.UPDATE, Member.class));
+        Assertions.assertThat(changes).filteredOn(change -> change.getType() == ChangeType.UPDATE)
+                .extracting("id").containsExactly(memberId);
+    }
+
+    @Test
+    public void rollbackIsNotPublished() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("change2", 10));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertThat(subscriber.changes.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void publishBulkUpdate() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.persist(new Member("change3", 10));
+            em.persist(new Member("change4", 20));
+        });
+        await(2);
+
+        transactionTemplate.executeWithoutResult(status -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(1))
+                .where(member.username.startsWith("change"))
+                .execute());
+
+        List<EntityChange> changes = await(1);
+        Assertions.assertThat(changes.get(0).getType()).isEqualTo(ChangeType.BULK_UPDATE);
+        Assertions.assertThat(changes.get(0).getEntityType()).isEqualTo(Member.class);
+        Assertions.assertThat(changes.get(0).getAffectedRows()).isEqualTo(2);
+    }
+
+    private List<EntityChange> await(int count) throws InterruptedException {
+        List<EntityChange> changes = new ArrayList<>();
+        while (changes.size() < count) {
+            EntityChange change = subscriber.changes.poll(5, TimeUnit.SECONDS);
+            Assertions.assertThat(change).isNotNull();
+            changes.add(change);
+        }
+        System.out.println("changes = " + changes);
+        return changes;
+    }
+
+    /**
+     * after() 의 정리용 벌크 delete 가 다음 테스트에 섞이지 않도록 BULK_DELETE 는 기록하지 않는다.
+     */
+    static class RecordingSubscriber implements ChangeSubscriber {
+
+        final BlockingQueue<EntityChange> changes = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onChanges(List<EntityChange> batch) {
+            for (EntityChange change : batch) {
+                if (change.getType() != ChangeType.BULK_DELETE) {
+                    changes.add(change);
+                }
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+}
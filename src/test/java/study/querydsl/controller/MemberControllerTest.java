@@ -0,0 +1,149 @@
+package study.querydsl.controller;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.controller.support.MemberTeamColumnarCodec;
+import study.querydsl.controller.support.MemberTeamColumnarHttpMessageConverter;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.support.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        em.flush();
+        em.clear();
+        sqlStatementCounter.reset();
+    }
+
+    @Test
+    public void searchMemberV1() throws Exception {
+        mockMvc.perform(get("/v1/members").param("teamName", "teamA"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
+        sqlStatementCounter.assertSelectCount(1);
+    }
+
+    @Test
+    public void searchMemberV1Columnar() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/members")
+                        .param("teamName", "teamA")
+                        .accept(MemberTeamColumnarHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MemberTeamColumnarHttpMessageConverter.MEDIA_TYPE))
+                .andReturn();
+
+        List<MemberTeamDto> members = MemberTeamColumnarCodec.decode(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        Assertions.assertThat(members).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        Assertions.assertThat(members).extracting("teamName").containsOnly("teamA");
+    }
+
+    @Test
+    public void searchMemberV1JsonByDefault() throws Exception {
+        // 컬럼 형식은 Accept 로 명시할 때만 선택된다.
+        mockMvc.perform(get("/v1/members").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        mockMvc.perform(get("/v1/members").accept(MediaType.APPLICATION_JSON, MemberTeamColumnarHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void searchMemberV1Fields() throws Exception {
+        mockMvc.perform(get("/v1/members").param("fields", "username,age"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].teamName").doesNotExist());
+
+        sqlStatementCounter.assertSelectCount(1);
+    }
+
+    @Test
+    public void searchMemberV2() throws Exception {
+        mockMvc.perform(get("/v2/members").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page.totalElements").value(4));
+
+        // count + content
+        sqlStatementCounter.assertSelectCount(2);
+    }
+
+    @Test
+    public void searchMemberV3() throws Exception {
+        mockMvc.perform(get("/v3/members").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+
+        sqlStatementCounter.assertSelectCount(2);
+    }
+
+    @Test
+    public void searchMemberV4() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page.totalElements").value(4));
+
+        // 첫 페이지에서 컨텐츠가 페이지 크기보다 작으면 count 쿼리를 생략한다.
+        sqlStatementCounter.assertSelectCount(1);
+    }
+
+    @Test
+    public void searchMemberV5() throws Exception {
+        mockMvc.perform(get("/v5/members").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.page.hasNext").value(true))
+                .andExpect(jsonPath("$.page.totalElements").doesNotExist());
+
+        mockMvc.perform(get("/v5/members").param("page", "1").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.page.hasNext").value(false));
+
+        // count 쿼리 없이 요청마다 컨텐츠 쿼리 한 번
+        sqlStatementCounter.assertSelectCount(2);
+    }
+}
@@ -0,0 +1,151 @@
+package study.querydsl.controller.support;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.DeadlineExceededException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 한도는 MemberRepository 조회 구간에 적용되므로 MemberRepository 를 목으로 바꿔서 조회 시간과 결과를 정한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConcurrencyLimitInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @MockBean
+    MemberRepository memberRepository;
+
+    @Test
+    public void rejectWhenLimitIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(memberRepository.searchPageComplex(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new PageImpl<>(Collections.emptyList(), invocation.<Pageable>getArgument(1), 0);
+        });
+        Mockito.when(memberRepository.searchPageComplexOptimization(any(), any()))
+                .thenAnswer(invocation -> new PageImpl<>(Collections.emptyList(), invocation.<Pageable>getArgument(1), 0));
+
+        // members-v3 의 초기 한도는 5 다. 페이지를 다르게 해서 공유 조회로 합쳐지지 않게 한다.
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        List<Future<MvcResult>> running = new ArrayList<>();
+        try {
+            for (int page = 0; page < 5; page++) {
+                String pageParam = String.valueOf(page);
+                running.add(executor.submit(() -> mockMvc.perform(get("/v3/members").param("page", pageParam)).andReturn()));
+            }
+            awaitGauge("member.concurrency.in-flight", "members-v3", 5);
+
+            mockMvc.perform(get("/v3/members").param("page", "5"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+
+            // 한도는 @ConcurrencyLimit 이름마다 따로 있다.
+            mockMvc.perform(get("/v4/members"))
+                    .andExpect(status().isOk());
+            Assertions.assertThat(gauge("member.concurrency.limit", "members-v3")).isEqualTo(5);
+            Assertions.assertThat(gauge("member.concurrency.limit", "members-v4")).isEqualTo(10);
+            Assertions.assertThat(meterRegistry.get("member.concurrency.rejected").tag("endpoint", "members-v3").functionCounter().count())
+                    .isEqualTo(1);
+        } finally {
+            release.countDown();
+            for (Future<MvcResult> future : running) {
+                Assertions.assertThat(future.get(5, TimeUnit.SECONDS).getResponse().getStatus()).isEqualTo(200);
+            }
+            executor.shutdownNow();
+        }
+        Assertions.assertThat(gauge("member.concurrency.in-flight", "members-v3")).isZero();
+    }
+
+    @Test
+    public void backoffOnServerTimeoutOnly() throws Exception {
+        Mockito.when(memberRepository.searchSlice(any(), any())).thenThrow(new QueryTimeoutException("db is slow"));
+
+        // 서버 설정 기한(없음)으로 실행하다 타임아웃 : 과부하로 보고 한도를 줄인다.
+        mockMvc.perform(get("/v5/members"))
+                .andExpect(status().isServiceUnavailable());
+        double limit = gauge("member.concurrency.limit", "members-v5");
+        Assertions.assertThat(limit).isEqualTo(9);
+
+        // 클라이언트가 정한 기한으로 실행하다 타임아웃 : 한도를 조정하지 않는다.
+        mockMvc.perform(get("/v5/members").header("X-Request-Timeout-Ms", "1000"))
+                .andExpect(status().isGatewayTimeout());
+        Assertions.assertThat(gauge("member.concurrency.limit", "members-v5")).isEqualTo(limit);
+        Assertions.assertThat(gauge("member.concurrency.in-flight", "members-v5")).isZero();
+
+        // 정상 응답은 렌더링 시간과 관계없이 조회 시간만으로 판단한다.
+        Mockito.reset(memberRepository);
+        Mockito.when(memberRepository.searchSlice(any(), any()))
+                .thenAnswer(invocation -> new SliceImpl<>(Collections.emptyList(), invocation.<Pageable>getArgument(1), false));
+        mockMvc.perform(get("/v5/members"))
+                .andExpect(status().isOk());
+        Assertions.assertThat(gauge("member.concurrency.limit", "members-v5")).isEqualTo(limit);
+    }
+
+    @Test
+    public void backoffOnServerDeadlineOnly() throws Exception {
+        Mockito.when(memberRepository.searchPageSimple(any(), any())).thenThrow(new DeadlineExceededException("deadline exceeded"));
+
+        // 서버 설정 기한을 넘긴 것은 과부하로 보고 한도를 줄인다. (초기 한도 10)
+        mockMvc.perform(get("/v2/members"))
+                .andExpect(status().isGatewayTimeout());
+        double limit = gauge("member.concurrency.limit", "members-v2");
+        Assertions.assertThat(limit).isLessThan(10);
+
+        // 클라이언트가 정한 기한을 넘긴 것은 한도를 조정하지 않는다.
+        mockMvc.perform(get("/v2/members").header("X-Request-Timeout-Ms", "1000"))
+                .andExpect(status().isGatewayTimeout());
+        Assertions.assertThat(gauge("member.concurrency.limit", "members-v2")).isEqualTo(limit);
+        Assertions.assertThat(gauge("member.concurrency.in-flight", "members-v2")).isZero();
+    }
+
+    private double gauge(String name, String endpoint) {
+        return meterRegistry.get(name).tag("endpoint", endpoint).gauge().value();
+    }
+
+    private void awaitGauge(String name, String endpoint, double expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            Gauge gauge = meterRegistry.find(name).tag("endpoint", endpoint).gauge();
+            if (gauge != null && gauge.value() == expected) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                Assertions.fail(name + " = " + (gauge != null ? gauge.value() : null) + ", expected = " + expected);
+            }
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package study.querydsl.controller.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class MemberTeamColumnarCodecTest {
+
+    @Test
+    public void encodeAndDecode() throws Exception {
+        List<MemberTeamDto> rows = new ArrayList<>();
+        rows.add(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+        rows.add(new MemberTeamDto(2L, "회원2", 20, 2L, "teamB"));
+        rows.add(new MemberTeamDto(3L, null, 30, null, null));
+        rows.add(new MemberTeamDto(4L, "member4", 40, 1L, "teamA"));
+
+        List<MemberTeamDto> result = MemberTeamColumnarCodec.decode(new ByteArrayInputStream(encode(rows)));
+
+        Assertions.assertThat(result).isEqualTo(rows);
+    }
+
+    @Test
+    public void roundTripWithNullTeams() throws Exception {
+        // 팀 없는 회원이 팀 사전 앞, 중간, 끝에 섞여 있어도 그대로 복원되어야 한다.
+        List<MemberTeamDto> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            if (i % 3 == 0) {
+                rows.add(new MemberTeamDto((long) i, "member" + i, i, null, null));
+            } else {
+                long teamId = i % 3;
+                rows.add(new MemberTeamDto((long) i, "member" + i, i, teamId, "team" + teamId));
+            }
+        }
+        rows.add(new MemberTeamDto(100L, "member100", 100, null, null));
+        // 팀은 있지만 이름이 없는 경우
+        rows.add(new MemberTeamDto(101L, null, 0, 3L, null));
+
+        Assertions.assertThat(MemberTeamColumnarCodec.decode(new ByteArrayInputStream(encode(rows)))).isEqualTo(rows);
+    }
+
+    @Test
+    public void emptyRows() throws Exception {
+        Assertions.assertThat(MemberTeamColumnarCodec.decode(new ByteArrayInputStream(encode(new ArrayList<>())))).isEmpty();
+    }
+
+    @Test
+    public void rejectTruncatedStream() throws Exception {
+        List<MemberTeamDto> rows = new ArrayList<>();
+        rows.add(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+        byte[] bytes = encode(rows);
+
+        Assertions.assertThatThrownBy(() -> MemberTeamColumnarCodec.decode(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3))))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    public void rejectCorruptCounts() throws Exception {
+        // 음수, 상한을 넘는 행 수
+        assertCorrupt(out -> out.writeInt(-1));
+        assertCorrupt(out -> out.writeInt(Integer.MAX_VALUE));
+        // 행 수보다 많은 팀 수
+        assertCorrupt(out -> {
+            out.writeInt(1);
+            out.writeLong(1L);
+            out.writeInt(10);
+            out.writeInt(2);
+        });
+    }
+
+    @Test
+    public void rejectTeamIndexOutOfRange() throws Exception {
+        assertCorrupt(out -> {
+            out.writeInt(1);
+            out.writeLong(1L);
+            out.writeInt(10);
+            out.writeInt(1);
+            out.writeLong(1L);
+            writeString(out, "teamA");
+            out.writeInt(1);
+        });
+        assertCorrupt(out -> {
+            out.writeInt(1);
+            out.writeLong(1L);
+            out.writeInt(10);
+            out.writeInt(0);
+            out.writeInt(-2);
+        });
+    }
+
+    @Test
+    public void rejectCorruptStringLength() throws Exception {
+        assertCorrupt(out -> {
+            out.writeInt(1);
+            out.writeLong(1L);
+            out.writeInt(10);
+            out.writeInt(0);
+            out.writeInt(-1);
+            out.writeInt(-2);
+        });
+        assertCorrupt(out -> {
+            out.writeInt(1);
+            out.writeLong(1L);
+            out.writeInt(10);
+            out.writeInt(0);
+            out.writeInt(-1);
+            out.writeInt(Integer.MAX_VALUE);
+        });
+    }
+
+    // magic 뒤에 body 를 쓴 스트림은 IOException 으로 거절되어야 한다. (배열 크기, 인덱스 예외가 아니라)
+    private void assertCorrupt(StreamBody body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MemberTeamColumnarCodec.MAGIC);
+        body.write(out);
+        out.flush();
+
+        Assertions.assertThatThrownBy(() -> MemberTeamColumnarCodec.decode(new ByteArrayInputStream(bytes.toByteArray())))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Invalid");
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    interface StreamBody {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private byte[] encode(List<MemberTeamDto> rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberTeamColumnarCodec.encode(rows, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.controller.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+class MemberTeamPageHttpMessageConverterTest {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void writePage() throws Exception {
+        Page<MemberTeamDto> page = createPage(3, 10);
+
+        JsonNode result = objectMapper.readTree(write(page));
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(page));
+
+        // content 는 기본 Jackson 직렬화 결과와 같아야 한다.
+        Assertions.assertThat(result.get("content")).isEqualTo(expected.get("content"));
+        Assertions.assertThat(result.get("page").get("totalElements").asLong()).isEqualTo(expected.get("totalElements").asLong());
+        Assertions.assertThat(result.get("page").get("totalPages").asInt()).isEqualTo(expected.get("totalPages").asInt());
+        Assertions.assertThat(result.get("page").get("number").asInt()).isEqualTo(expected.get("number").asInt());
+        Assertions.assertThat(result.get("page").get("size").asInt()).isEqualTo(expected.get("size").asInt());
+        Assertions.assertThat(result.has("pageable")).isFalse();
+    }
+
+    @Test
+    public void writeSlice() throws Exception {
+        List<MemberTeamDto> content = new ArrayList<>();
+        content.add(new MemberTeamDto(1L, "member1", 10, null, null));
+
+        JsonNode result = objectMapper.readTree(write(new SliceImpl<>(content, PageRequest.of(0, 1), true)));
+
+        Assertions.assertThat(result.get("content").get(0).get("teamId").isNull()).isTrue();
+        Assertions.assertThat(result.get("page").get("hasNext").asBoolean()).isTrue();
+        Assertions.assertThat(result.get("page").has("totalElements")).isFalse();
+    }
+
+    private byte[] write(Slice<MemberTeamDto> slice) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberTeamPageHttpMessageConverter.write(slice, out);
+        return out.toByteArray();
+    }
+
+    private Page<MemberTeamDto> createPage(int size, long total) {
+        List<MemberTeamDto> content = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long teamId = i % 2 == 0 ? 1L : 2L;
+            content.add(new MemberTeamDto((long) i, "member" + i, i, teamId, teamId == 1L ? "teamA" : "teamB"));
+        }
+        return new PageImpl<>(content, PageRequest.of(0, size), total);
+    }
+}
@@ -1,9 +1,12 @@
 package study.querydsl.entity;
 
+import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.support.SqlStatementCounter;
 
 import javax.persistence.EntityManager;
 
@@ -18,6 +21,9 @@ class MemberTest {
     @Autowired
     EntityManager em;
 
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
     @Test
     public void testEntity() {
         Team teamA = new Team("teamA");
@@ -46,4 +52,110 @@ class MemberTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void addMemberWithoutInitializingMembers() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        em.flush();
+        em.clear();
+
+        Team findTeam = em.find(Team.class, teamA.getId());
+        sqlStatementCounter.reset();
+
+        Member newMember = new Member("newMember", 20, findTeam);
+        em.persist(newMember);
+
+        Assertions.assertThat(findTeam.getMemberCount()).isEqualTo(11);
+        Assertions.assertThat(findTeam.hasMember(newMember)).isTrue();
+        Assertions.assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+        // 추가, 인원 수, 소속 여부 확인에 select 가 없어야 한다.
+        sqlStatementCounter.assertSelectCount(0);
+
+        // EXTRA 이므로 size() 도 컬렉션을 읽지 않고 count 쿼리로 처리된다.
+        em.flush();
+        Assertions.assertThat(findTeam.getMembers().size()).isEqualTo(11);
+        Assertions.assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+    }
+
+    @Test
+    public void memberCountIsMaintainedInDatabase() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+        em.clear();
+        Assertions.assertThat(em.find(Team.class, teamA.getId()).getMemberCount()).isEqualTo(2);
+
+        // 팀 변경
+        Member findMember = em.find(Member.class, member1.getId());
+        findMember.setTeam(em.find(Team.class, teamB.getId()));
+        em.flush();
+        em.clear();
+        Assertions.assertThat(em.find(Team.class, teamA.getId()).getMemberCount()).isEqualTo(1);
+        Assertions.assertThat(em.find(Team.class, teamB.getId()).getMemberCount()).isEqualTo(1);
+
+        // 삭제
+        em.remove(em.find(Member.class, member2.getId()));
+        em.flush();
+        em.clear();
+        Assertions.assertThat(em.find(Team.class, teamA.getId()).getMemberCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void memberCountIsUpdatedOncePerTeamPerFlush() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.flush();
+
+        for (int i = 0; i < 3; i++) {
+            em.persist(new Member("memberA" + i, i, teamA));
+        }
+        for (int i = 0; i < 2; i++) {
+            em.persist(new Member("memberB" + i, i, teamB));
+        }
+        sqlStatementCounter.reset();
+        em.flush();
+
+        // 회원 insert 는 JDBC 배치 한 번, member_count 는 팀마다 update 한 번
+        Assertions.assertThat(sqlStatementCounter.getInsertCount()).isEqualTo(1);
+        Assertions.assertThat(sqlStatementCounter.getStatements())
+                .filteredOn(sql -> sql.startsWith("update team set member_count"))
+                .hasSize(2);
+
+        em.clear();
+        Assertions.assertThat(em.find(Team.class, teamA.getId()).getMemberCount()).isEqualTo(3);
+        Assertions.assertThat(em.find(Team.class, teamB.getId()).getMemberCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void staleTeamDoesNotOverwriteMemberCount() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.flush();
+        em.clear();
+
+        // 다른 곳에서 회원이 추가되기 전의 값을 들고 있는 팀
+        Team stale = em.find(Team.class, teamA.getId());
+        em.createNativeQuery("update team set member_count = member_count + 1 where team_id = ?")
+                .setParameter(1, teamA.getId())
+                .executeUpdate();
+        stale.setName("renamed");
+        em.flush();
+        em.clear();
+
+        Team findTeam = em.find(Team.class, teamA.getId());
+        Assertions.assertThat(findTeam.getName()).isEqualTo("renamed");
+        Assertions.assertThat(findTeam.getMemberCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,124 @@
+package study.querydsl.export;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 파티션마다 별도 커넥션으로 읽으므로 @Transactional 을 쓰지 않고 커밋한 데이터로 확인한다.
+ */
+@SpringBootTest
+class MemberExporterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MemberExporter memberExporter;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    public void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Team exportTeam = new Team("exportTeam");
+            em.persist(exportTeam);
+            for (int i = 0; i < 20; i++) {
+                em.persist(new Member("export" + i, i, exportTeam));
+            }
+            em.persist(new Member("export,\"quoted\"", 99));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            queryFactory.delete(member).where(member.username.startsWith("export")).execute();
+            queryFactory.delete(team).where(team.name.eq("exportTeam")).execute();
+        });
+    }
+
+    @Test
+    public void exportPartitions() throws IOException {
+        Path target = dir.resolve("members.csv.gz");
+
+        MemberExportResult result = memberExporter.export(target, 3);
+
+        for (PartitionExport partition : result.getPartitions()) {
+            System.out.println("partition = " + partition + ", rows/s = " + partition.getRowsPerSecond());
+        }
+        Assertions.assertThat(result.getPartitions()).hasSize(3);
+        Assertions.assertThat(result.getBytes()).isEqualTo(Files.size(target));
+        // 세그먼트 파일은 이어 붙인 뒤 지운다.
+        try (Stream<Path> files = Files.list(dir)) {
+            Assertions.assertThat(files).containsExactly(target);
+        }
+
+        List<String> lines = readGzip(target);
+        Assertions.assertThat(lines.get(0)).isEqualTo(MemberExporter.HEADER);
+        Assertions.assertThat(lines).filteredOn(line -> line.equals(MemberExporter.HEADER)).hasSize(1);
+        Assertions.assertThat(lines).hasSize((int) result.getRows() + 1);
+
+        List<String> exported = lines.stream().filter(line -> line.contains("export")).collect(Collectors.toList());
+        Assertions.assertThat(exported).hasSize(21);
+        Assertions.assertThat(exported.get(0)).endsWith(",export0,0," + exportTeamId() + ",exportTeam");
+        Assertions.assertThat(exported.get(20)).endsWith(",\"export,\"\"quoted\"\"\",99,,");
+    }
+
+    @Test
+    public void rejectNonPositivePartitions() {
+        Path target = dir.resolve("members.csv.gz");
+
+        Assertions.assertThatThrownBy(() -> memberExporter.export(target, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThatThrownBy(() -> memberExporter.export(target, -1))
+                .isInstanceOf(IllegalArgumentException.class);
+        Assertions.assertThat(target).doesNotExist();
+    }
+
+    private Long exportTeamId() {
+        return transactionTemplate.execute(status -> queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq("exportTeam"))
+                .fetchOne());
+    }
+
+    // 여러 gzip 멤버를 이어 붙인 파일도 GZIPInputStream 하나로 끝까지 읽힌다.
+    private List<String> readGzip(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
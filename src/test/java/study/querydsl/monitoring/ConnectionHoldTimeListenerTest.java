@@ -0,0 +1,105 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+@ExtendWith(OutputCaptureExtension.class)
+class ConnectionHoldTimeListenerTest {
+
+    static final long ACQUIRE = TimeUnit.MILLISECONDS.toNanos(5);
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    public void after() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void recordAcquireAndHoldPerEndpoint(CapturedOutput output) {
+        ConnectionHoldTimeListener listener = new ConnectionHoldTimeListener(meterRegistry, 60_000, false);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/members");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        ConnectionInformation connection = connection();
+        listener.onAfterGetConnection(connection, null);
+        Assertions.assertThat(meterRegistry.get("jdbc.connection.held").gauge().value()).isEqualTo(1);
+
+        listener.onAfterConnectionClose(connection, null);
+        Assertions.assertThat(meterRegistry.get("jdbc.connection.held").gauge().value()).isZero();
+
+        Timer acquire = meterRegistry.get("jdbc.connection.acquire").timer();
+        Assertions.assertThat(acquire.count()).isEqualTo(1);
+        Assertions.assertThat(acquire.totalTime(TimeUnit.NANOSECONDS)).isEqualTo(ACQUIRE);
+        Assertions.assertThat(meterRegistry.get("jdbc.connection.hold").tag("endpoint", "/v1/members").timer().count()).isEqualTo(1);
+        Assertions.assertThat(output).doesNotContain("connection held for");
+    }
+
+    @Test
+    public void endpointIsNoneOutsideRequest() {
+        ConnectionHoldTimeListener listener = new ConnectionHoldTimeListener(meterRegistry, 60_000, false);
+
+        ConnectionInformation connection = connection();
+        listener.onAfterGetConnection(connection, null);
+        listener.onAfterConnectionClose(connection, null);
+
+        Assertions.assertThat(meterRegistry.get("jdbc.connection.hold").tag("endpoint", "none").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void ignoreFailedAcquire() {
+        ConnectionHoldTimeListener listener = new ConnectionHoldTimeListener(meterRegistry, 60_000, false);
+
+        ConnectionInformation connection = connection();
+        listener.onAfterGetConnection(connection, new SQLException("pool exhausted"));
+        listener.onAfterConnectionClose(connection, null);
+
+        Assertions.assertThat(meterRegistry.get("jdbc.connection.acquire").timer().count()).isZero();
+        Assertions.assertThat(meterRegistry.find("jdbc.connection.hold").timer()).isNull();
+    }
+
+    @Test
+    public void warnLongHoldWithAcquireStack(CapturedOutput output) {
+        // 임계값 0 : 모든 점유가 긴 점유
+        ConnectionHoldTimeListener listener = new ConnectionHoldTimeListener(meterRegistry, 0, true);
+
+        ConnectionInformation connection = connection();
+        listener.onAfterGetConnection(connection, null);
+        listener.onAfterConnectionClose(connection, null);
+
+        Assertions.assertThat(output).contains("connection held for", "endpoint=none");
+        // 커넥션을 얻은 위치(이 테스트 메서드)가 스택 트레이스로 남는다.
+        Assertions.assertThat(output).contains("connection acquired here", "warnLongHoldWithAcquireStack");
+    }
+
+    @Test
+    public void warnLongHoldWithoutStack(CapturedOutput output) {
+        ConnectionHoldTimeListener listener = new ConnectionHoldTimeListener(meterRegistry, 0, false);
+
+        ConnectionInformation connection = connection();
+        listener.onAfterGetConnection(connection, null);
+        listener.onAfterConnectionClose(connection, null);
+
+        Assertions.assertThat(output).contains("connection held for");
+        Assertions.assertThat(output).doesNotContain("connection acquired here");
+    }
+
+    private ConnectionInformation connection() {
+        return ConnectionInformation.fromDriver(null, null, ACQUIRE);
+    }
+}
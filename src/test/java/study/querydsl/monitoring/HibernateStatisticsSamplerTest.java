@@ -0,0 +1,107 @@
+package study.querydsl.monitoring;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 스케줄러 없이 rollWindow() 를 직접 호출해서 윈도우를 넘긴다.
+ * Statistics 는 수집 여부와 쿼리 실행 수만 상태로 갖는 스텁이다. (clear() 하면 0 으로 돌아간다.)
+ */
+class HibernateStatisticsSamplerTest {
+
+    Statistics statistics = Mockito.mock(Statistics.class);
+    EntityManagerFactory emf = Mockito.mock(EntityManagerFactory.class);
+
+    AtomicBoolean enabled = new AtomicBoolean();
+    AtomicLong queryExecutions = new AtomicLong();
+
+    @BeforeEach
+    public void before() {
+        SessionFactory sessionFactory = Mockito.mock(SessionFactory.class);
+        Mockito.when(emf.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        Mockito.when(sessionFactory.getStatistics()).thenReturn(statistics);
+
+        Mockito.when(statistics.isStatisticsEnabled()).thenAnswer(invocation -> enabled.get());
+        Mockito.doAnswer(invocation -> {
+            enabled.set(invocation.getArgument(0));
+            return null;
+        }).when(statistics).setStatisticsEnabled(Mockito.anyBoolean());
+        Mockito.when(statistics.getQueryExecutionCount()).thenAnswer(invocation -> queryExecutions.get());
+        Mockito.doAnswer(invocation -> {
+            queryExecutions.set(0);
+            return null;
+        }).when(statistics).clear();
+        Mockito.when(statistics.getQueries()).thenReturn(new String[0]);
+        Mockito.when(statistics.getEntityNames()).thenReturn(new String[0]);
+        Mockito.when(statistics.getCollectionRoleNames()).thenReturn(new String[0]);
+    }
+
+    @Test
+    public void rollSampledWindow() {
+        HibernateStatisticsSampler sampler = new HibernateStatisticsSampler(emf, 1.0);
+        sampler.init();
+        Assertions.assertThat(enabled.get()).isTrue();
+        Assertions.assertThat(sampler.lastWindow()).isNull();
+
+        queryExecutions.set(7);
+        sampler.rollWindow();
+
+        // 직전 윈도우는 초기화 전에 남기고, 새 윈도우는 0 부터 센다.
+        Assertions.assertThat(sampler.lastWindow().getQueryExecutionCount()).isEqualTo(7);
+        Assertions.assertThat(sampler.lastWindow().isSampled()).isTrue();
+        Assertions.assertThat(sampler.current().getQueryExecutionCount()).isZero();
+        Mockito.verify(statistics, Mockito.times(2)).clear();
+
+        queryExecutions.set(3);
+        sampler.rollWindow();
+        Assertions.assertThat(sampler.lastWindow().getQueryExecutionCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void unsampledWindowKeepsStatisticsDisabled() {
+        HibernateStatisticsSampler sampler = new HibernateStatisticsSampler(emf, 0.0);
+        sampler.init();
+        Assertions.assertThat(enabled.get()).isFalse();
+
+        sampler.rollWindow();
+
+        // 수집하지 않은 윈도우는 직전 윈도우로 남기지 않는다.
+        Assertions.assertThat(sampler.lastWindow()).isNull();
+        Assertions.assertThat(enabled.get()).isFalse();
+        Mockito.verify(statistics, Mockito.times(2)).clear();
+        Mockito.verify(statistics, Mockito.never()).getQueryExecutionCount();
+    }
+
+    @Test
+    public void resetAlwaysSamplesNextWindow() {
+        HibernateStatisticsSampler sampler = new HibernateStatisticsSampler(emf, 0.0);
+        sampler.init();
+        HibernateStatisticsEndpoint endpoint = new HibernateStatisticsEndpoint(sampler);
+
+        queryExecutions.set(5);
+        endpoint.reset();
+
+        Assertions.assertThat(enabled.get()).isTrue();
+        Assertions.assertThat(queryExecutions.get()).isZero();
+
+        queryExecutions.set(2);
+        Map<String, HibernateStatisticsSnapshot> result = endpoint.statistics();
+        Assertions.assertThat(result).containsOnlyKeys("current", "lastWindow");
+        Assertions.assertThat(result.get("current").getQueryExecutionCount()).isEqualTo(2);
+        Assertions.assertThat(result.get("lastWindow")).isNull();
+
+        // 리셋한 윈도우도 다음 rollWindow 에서 직전 윈도우가 된다.
+        sampler.rollWindow();
+        Assertions.assertThat(endpoint.statistics().get("lastWindow").getQueryExecutionCount()).isEqualTo(2);
+        Assertions.assertThat(enabled.get()).isFalse();
+    }
+}
@@ -0,0 +1,105 @@
+package study.querydsl.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SqlTraceCollectorTest {
+
+    static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    static final long SLOW = TimeUnit.MILLISECONDS.toNanos(150);
+
+    @Test
+    public void recordOnlySlowAndFailedWhenSampleRateIsZero() {
+        SqlTraceCollector collector = new SqlTraceCollector(new SimpleMeterRegistry(), 0, 100, 16, 10);
+
+        for (int i = 0; i < 100; i++) {
+            collector.onExecute("select * from member where member_id=?", FAST, null);
+        }
+        collector.onExecute("select * from member where member_id=?", SLOW, null);
+        collector.onExecute("/* insert Member */ insert into member (age, username) values (?, ?)", FAST, new SQLException("duplicate"));
+
+        Assertions.assertThat(collector.aggregatePending()).isEqualTo(2);
+
+        List<SqlStatementStats> statements = collector.statements();
+        for (SqlStatementStats stats : statements) {
+            System.out.println("stats = " + stats.getSql() + " traced=" + stats.getTraced() + " max=" + stats.getMaxMillis());
+        }
+        Assertions.assertThat(statements).extracting("sql")
+                .containsExactly("select * from member where member_id=?", "insert into member (age, username) values (?, ?)");
+        Assertions.assertThat(statements.get(0).getSlow()).isEqualTo(1);
+        Assertions.assertThat(statements.get(1).getError()).isEqualTo(1);
+    }
+
+    @Test
+    public void sampleAndEstimate() {
+        SqlTraceCollector collector = new SqlTraceCollector(new SimpleMeterRegistry(), 1.0, 100, 1024, 10);
+
+        for (int i = 0; i < 10; i++) {
+            collector.onExecute("select   count(*)\n from member", FAST, null);
+        }
+        collector.aggregatePending();
+
+        SqlStatementStats stats = collector.statements().get(0);
+        Assertions.assertThat(stats.getSql()).isEqualTo("select count(*) from member");
+        Assertions.assertThat(stats.getSampled()).isEqualTo(10);
+        Assertions.assertThat(stats.getEstimatedExecutions()).isEqualTo(10);
+    }
+
+    @Test
+    public void dropWhenBufferIsFull() {
+        SqlTraceCollector collector = new SqlTraceCollector(new SimpleMeterRegistry(), 1.0, 100, 4, 10);
+
+        for (int i = 0; i < 6; i++) {
+            collector.onExecute("select 1", FAST, null);
+        }
+
+        Assertions.assertThat(collector.getDroppedCount()).isEqualTo(2);
+        Assertions.assertThat(collector.aggregatePending()).isEqualTo(4);
+    }
+
+    @Test
+    public void mergeOverflowStatementsIntoOther() {
+        SqlTraceCollector collector = new SqlTraceCollector(new SimpleMeterRegistry(), 1.0, 100, 64, 2);
+
+        collector.onExecute("select 1", FAST, null);
+        collector.onExecute("select 2", FAST, null);
+        collector.onExecute("select 3", FAST, null);
+        collector.onExecute("select 4", FAST, null);
+        collector.aggregatePending();
+
+        Assertions.assertThat(collector.statements()).extracting("sql")
+                .containsExactlyInAnyOrder("select 1", "select 2", SqlTraceCollector.OTHER);
+        Assertions.assertThat(collector.statements()).filteredOn("sql", SqlTraceCollector.OTHER)
+                .extracting("sampled").containsExactly(2L);
+    }
+
+    @Test
+    public void idleAggregatorIsWokenByRecord() throws Exception {
+        SqlTraceCollector collector = new SqlTraceCollector(new SimpleMeterRegistry(), 1.0, 100, 64, 10);
+        collector.start();
+        try {
+            // 빈 버퍼에서 시간 제한 없이 잠든 뒤에 들어온 기록도 집계되어야 한다.
+            for (int i = 1; i <= 3; i++) {
+                collector.onExecute("select " + i, FAST, null);
+                awaitStatements(collector, i);
+            }
+        } finally {
+            collector.stop();
+        }
+    }
+
+    private void awaitStatements(SqlTraceCollector collector, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (collector.statements().size() < expected) {
+            if (System.nanoTime() > deadline) {
+                Assertions.fail("statements = " + collector.statements().size() + ", expected = " + expected);
+            }
+            Thread.yield();
+        }
+    }
+}
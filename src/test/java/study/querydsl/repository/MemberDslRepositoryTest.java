@@ -44,4 +44,14 @@ class MemberDslRepositoryTest {
             System.out.println("findByUsername member = " + member1);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void findAllAfterSave() {
+        Member member = new Member("member1", 10);
+        memberDslRepository.save(member);
+
+        // 같은 쓰기 트랜잭션에서 저장한 회원은 조회 전에 flush 되어야 한다.
+        List<Member> result = memberDslRepository.findAll();
+        Assertions.assertThat(result).contains(member);
+    }
+}
@@ -8,6 +8,7 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.support.SqlStatementCounter;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
@@ -21,6 +22,9 @@ class MemberJpaRepositoryTest {
     @Autowired
     EntityManager em;
 
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
@@ -64,6 +68,9 @@ class MemberJpaRepositoryTest {
         em.persist(member3);
         em.persist(member4);
 
+        em.flush();
+        sqlStatementCounter.reset();
+
         MemberSearchCondition condition = new MemberSearchCondition();
         condition.setAgeGoe(35);
         condition.setAgeLoe(40);
@@ -71,6 +78,8 @@ class MemberJpaRepositoryTest {
 
         List<MemberTeamDto> result = memberJpaRepository.searchByBuilder(condition);
 
+        sqlStatementCounter.assertSelectCount(1);
+
         Assertions.assertThat(result).extracting("username").containsExactly("member4");
 
         for (MemberTeamDto memberTeamDto : result) {
@@ -96,6 +105,9 @@ class MemberJpaRepositoryTest {
         em.persist(member3);
         em.persist(member4);
 
+        em.flush();
+        sqlStatementCounter.reset();
+
         MemberSearchCondition condition = new MemberSearchCondition();
         condition.setAgeGoe(35);
         condition.setAgeLoe(40);
@@ -103,6 +115,8 @@ class MemberJpaRepositoryTest {
 
         List<MemberTeamDto> result = memberJpaRepository.search(condition);
 
+        sqlStatementCounter.assertSelectCount(1);
+
         Assertions.assertThat(result).extracting("username").containsExactly("member4");
 
         for (MemberTeamDto memberTeamDto : result) {
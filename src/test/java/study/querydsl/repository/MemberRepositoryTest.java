@@ -8,13 +8,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamField;
+import study.querydsl.dto.MemberTeamRankDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.support.SqlStatementCounter;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @SpringBootTest
 @Transactional
@@ -24,6 +28,9 @@ class MemberRepositoryTest {
     @Autowired
     EntityManager em;
 
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
     @Autowired
     MemberRepository memberRepository;
 
@@ -67,6 +74,9 @@ class MemberRepositoryTest {
         em.persist(member3);
         em.persist(member4);
 
+        em.flush();
+        sqlStatementCounter.reset();
+
         MemberSearchCondition condition = new MemberSearchCondition();
         condition.setAgeGoe(35);
         condition.setAgeLoe(40);
@@ -74,6 +84,8 @@ class MemberRepositoryTest {
 
         List<MemberTeamDto> result = memberRepository.search(condition);
 
+        sqlStatementCounter.assertSelectCount(1);
+
         Assertions.assertThat(result).extracting("username").containsExactly("member4");
 
         for (MemberTeamDto memberTeamDto : result) {
@@ -99,11 +111,16 @@ class MemberRepositoryTest {
         em.persist(member3);
         em.persist(member4);
 
+        em.flush();
+        sqlStatementCounter.reset();
+
         MemberSearchCondition condition = new MemberSearchCondition();
         PageRequest request = PageRequest.of(0, 3);
 
         Page<MemberTeamDto> result = memberRepository.searchPageSimple(condition, request);
 
+        sqlStatementCounter.assertSelectCount(2);
+
         Assertions.assertThat(result.getSize()).isEqualTo(3);
         Assertions.assertThat(result.getContent()).extracting("username").containsExactly("member1","member2","member3");
 
@@ -132,11 +149,16 @@ class MemberRepositoryTest {
         em.persist(member3);
         em.persist(member4);
 
+        em.flush();
+        sqlStatementCounter.reset();
+
         MemberSearchCondition condition = new MemberSearchCondition();
         PageRequest request = PageRequest.of(0, 3);
 
         Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, request);
 
+        sqlStatementCounter.assertSelectCount(2);
+
         Assertions.assertThat(result.getSize()).isEqualTo(3);
         Assertions.assertThat(result.getContent()).extracting("username").containsExactly("member1","member2","member3");
 
@@ -165,11 +187,16 @@ class MemberRepositoryTest {
         em.persist(member3);
         em.persist(member4);
 
+        em.flush();
+        sqlStatementCounter.reset();
+
         MemberSearchCondition condition = new MemberSearchCondition();
         PageRequest request = PageRequest.of(0, 5);
 
         Page<MemberTeamDto> result = memberRepository.searchPageComplexOptimization(condition, request);
 
+        sqlStatementCounter.assertSelectCount(1);
+
         Assertions.assertThat(result.getSize()).isEqualTo(5);
         Assertions.assertThat(result.getContent()).extracting("username").containsExactly("member1","member2","member3","member4");
 
@@ -179,4 +206,115 @@ class MemberRepositoryTest {
             System.out.println("memberTeamDto = " + memberTeamDto);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void searchTeamAgeRank() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 40, teamB));
+
+        em.flush();
+        sqlStatementCounter.reset();
+
+        List<MemberTeamRankDto> result = memberRepository.searchTeamAgeRank(new MemberSearchCondition());
+
+        sqlStatementCounter.assertSelectCount(1);
+
+        for (MemberTeamRankDto dto : result) {
+            System.out.println("dto = " + dto);
+        }
+        Assertions.assertThat(result).extracting("username").containsExactly("member2", "member1", "member4", "member5", "member3");
+        Assertions.assertThat(result).extracting("teamAgeRank").containsExactly(1L, 2L, 1L, 1L, 3L);
+        Assertions.assertThat(result.get(2).getTeamAvgAge()).isCloseTo(36.67, Assertions.within(0.01));
+    }
+
+    @Test
+    public void searchOlderThanTeamAverage() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 45, teamB));
+        em.persist(new Member("noTeam", 99));
+
+        em.flush();
+        sqlStatementCounter.reset();
+
+        List<MemberTeamDto> result = memberRepository.searchOlderThanTeamAverage();
+
+        sqlStatementCounter.assertSelectCount(1);
+        Assertions.assertThat(result).extracting("username").containsExactly("member2", "member5", "member4");
+    }
+
+    @Test
+    public void searchFields() {
+        persistMembers();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(30);
+
+        List<Map<String, Object>> result = memberRepository.searchFields(condition, MemberTeamField.parse("username,age"));
+
+        // 정렬 조건이 없으므로 순서는 비교하지 않는다.
+        Assertions.assertThat(result).hasSize(3);
+        Assertions.assertThat(result).allSatisfy(row -> Assertions.assertThat(row).containsOnlyKeys("username", "age"));
+        Assertions.assertThat(result).extracting(row -> row.get("username")).containsExactlyInAnyOrder("member3", "member4", "member5");
+    }
+
+    @Test
+    public void searchFields_teamName() {
+        persistMembers();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        List<Map<String, Object>> result = memberRepository.searchFields(condition, MemberTeamField.parse("teamId,teamName"));
+
+        Assertions.assertThat(result).hasSize(2);
+        Assertions.assertThat(result).extracting(row -> row.get("teamName")).containsOnly("teamA");
+    }
+
+    @Test
+    public void searchFields_joinTeamOnlyWhenNeeded() {
+        persistMembers();
+        em.flush();
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // teamId 는 member 의 FK 로 읽으므로 team 을 조인하지 않는다.
+        sqlStatementCounter.reset();
+        List<Map<String, Object>> result = memberRepository.searchFields(condition, MemberTeamField.parse("memberId,username,teamId"));
+        Assertions.assertThat(result).hasSize(5);
+        Assertions.assertThat(sqlStatementCounter.getStatements()).hasSize(1);
+        Assertions.assertThat(sqlStatementCounter.getStatements().get(0)).doesNotContain("join");
+
+        sqlStatementCounter.reset();
+        memberRepository.searchFields(condition, MemberTeamField.parse("teamName"));
+        Assertions.assertThat(sqlStatementCounter.getStatements()).hasSize(1);
+        Assertions.assertThat(sqlStatementCounter.getStatements().get(0)).contains("join");
+    }
+
+    private void persistMembers() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+    }
+}
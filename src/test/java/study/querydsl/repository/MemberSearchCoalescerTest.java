@@ -0,0 +1,108 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class MemberSearchCoalescerTest {
+
+    MemberJpaRepository memberJpaRepository = Mockito.mock(MemberJpaRepository.class);
+    MemberRepository memberRepository = Mockito.mock(MemberRepository.class);
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    MemberSearchCoalescer coalescer = new MemberSearchCoalescer(memberJpaRepository, memberRepository, meterRegistry);
+
+    @Test
+    public void shareSearchWithEmptyStringCondition() throws Exception {
+        List<MemberTeamDto> result = Collections.singletonList(new MemberTeamDto(1L, "member1", 10, 1L, "teamA"));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(memberJpaRepository.search(Mockito.any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+
+        MemberSearchCondition nullCondition = new MemberSearchCondition();
+        nullCondition.setAgeGoe(10);
+        AtomicReference<List<MemberTeamDto>> leaderResult = new AtomicReference<>();
+        Thread leader = new Thread(() -> leaderResult.set(coalescer.search(nullCondition)));
+        leader.start();
+        Assertions.assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Assertions.assertThat(inFlight()).isEqualTo(1);
+
+        // 빈 문자열은 조건 없음(null)과 같은 조회로 합쳐진다.
+        MemberSearchCondition emptyCondition = new MemberSearchCondition();
+        emptyCondition.setUsername("");
+        emptyCondition.setTeamName("");
+        emptyCondition.setAgeGoe(10);
+        AtomicReference<List<MemberTeamDto>> followerResult = new AtomicReference<>();
+        Thread follower = new Thread(() -> followerResult.set(coalescer.search(emptyCondition)));
+        follower.start();
+        awaitBlockedOrDone(follower);
+
+        release.countDown();
+        leader.join(5_000);
+        follower.join(5_000);
+
+        Assertions.assertThat(leaderResult.get()).isSameAs(result);
+        Assertions.assertThat(followerResult.get()).isSameAs(result);
+        ArgumentCaptor<MemberSearchCondition> captor = ArgumentCaptor.forClass(MemberSearchCondition.class);
+        Mockito.verify(memberJpaRepository, Mockito.times(1)).search(captor.capture());
+        Assertions.assertThat(captor.getValue().getUsername()).isNull();
+        Assertions.assertThat(captor.getValue().getTeamName()).isNull();
+
+        Assertions.assertThat(count("search", "executed")).isEqualTo(1);
+        Assertions.assertThat(count("search", "shared")).isEqualTo(1);
+        Assertions.assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    public void differentConditionsAreNotShared() {
+        Mockito.when(memberJpaRepository.search(Mockito.any())).thenReturn(Collections.emptyList());
+        MemberSearchCondition teamA = new MemberSearchCondition();
+        teamA.setTeamName("teamA");
+        MemberSearchCondition teamB = new MemberSearchCondition();
+        teamB.setTeamName("teamB");
+
+        coalescer.search(teamA);
+        coalescer.search(teamB);
+
+        Mockito.verify(memberJpaRepository, Mockito.times(2)).search(Mockito.any());
+        Assertions.assertThat(count("search", "executed")).isEqualTo(2);
+        Assertions.assertThat(meterRegistry.find("member.search.coalescing").tag("result", "shared").counter()).isNull();
+    }
+
+    private double count(String method, String result) {
+        return meterRegistry.get("member.search.coalescing")
+                .tag("method", method)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("member.search.coalescing.in-flight").gauge().value();
+    }
+
+    // follower 가 leader 의 결과를 기다리기 시작할 때까지(합쳐지지 않았다면 끝날 때까지) 기다린다.
+    private void awaitBlockedOrDone(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED) {
+            if (System.nanoTime() > deadline) {
+                Assertions.fail("follower state = " + thread.getState());
+            }
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package study.querydsl.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamRankDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * querydsl-sql 구현이 JPA 구현(MemberRepositoryImpl)과 같은 결과를 내는지 비교한다.
+ */
+@SpringBootTest
+@Transactional
+class MemberSqlRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberSqlRepository memberSqlRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+
+        // querydsl-sql 은 영속성 컨텍스트를 거치지 않으므로 먼저 DB 에 반영한다.
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void search() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        List<MemberTeamDto> result = memberSqlRepository.search(condition);
+
+        for (MemberTeamDto dto : result) {
+            System.out.println("dto = " + dto);
+        }
+        Assertions.assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+        Assertions.assertThat(result).extracting("username").containsExactlyInAnyOrder("member2", "member3", "member4", "member5");
+    }
+
+    @Test
+    public void searchByTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        List<MemberTeamDto> result = memberSqlRepository.search(condition);
+
+        Assertions.assertThat(result).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        Assertions.assertThat(result).extracting("teamName").containsOnly("teamB");
+    }
+
+    @Test
+    public void searchPageComplexOptimization() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Page<MemberTeamDto> result = memberSqlRepository.searchPageComplexOptimization(condition, PageRequest.of(1, 2));
+
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(5);
+        Assertions.assertThat(result.getContent()).hasSize(2);
+    }
+
+    @Test
+    public void searchTeamAgeRank() {
+        List<MemberTeamRankDto> result = memberSqlRepository.searchTeamAgeRank(new MemberSearchCondition());
+
+        Assertions.assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(memberRepository.searchTeamAgeRank(new MemberSearchCondition()));
+    }
+
+    @Test
+    public void searchOlderThanTeamAverage() {
+        List<MemberTeamDto> result = memberSqlRepository.searchOlderThanTeamAverage();
+
+        Assertions.assertThat(result).extracting("username").containsExactly("member2", "member4");
+    }
+}
@@ -0,0 +1,137 @@
+package study.querydsl.repository;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.UnsupportedSortException;
+import study.querydsl.support.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import java.util.List;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+    }
+
+    @Test
+    public void searchPageByDeferredJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest request = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "age"));
+        em.flush();
+        sqlStatementCounter.reset();
+
+        Page<MemberTeamDto> result = memberTestRepository.searchPageByDeferredJoin(condition, request);
+
+        // id 쿼리, count 쿼리는 teamName 조건이 없으면 team 을 조인하지 않는다. (조인은 컨텐츠 쿼리에만)
+        List<String> statements = sqlStatementCounter.getStatements();
+        Assertions.assertThat(statements).hasSize(3);
+        Assertions.assertThat(statements.get(0)).doesNotContain("join");
+        Assertions.assertThat(statements.get(1)).contains("join");
+        Assertions.assertThat(statements.get(2)).doesNotContain("join");
+
+        // 2 페이지(나이 내림차순) : member3, member2
+        Assertions.assertThat(result.getContent()).extracting("username").containsExactly("member3", "member2");
+        Assertions.assertThat(result.getContent()).extracting("teamName").containsExactly("teamB", "teamA");
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(5);
+
+        for (MemberTeamDto memberTeamDto : result.getContent()) {
+            System.out.println("memberTeamDto = " + memberTeamDto);
+        }
+    }
+
+    @Test
+    public void searchSlice() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Slice<MemberTeamDto> first = memberTestRepository.searchSlice(condition, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+        Slice<MemberTeamDto> last = memberTestRepository.searchSlice(condition, PageRequest.of(2, 2, Sort.by(Sort.Direction.DESC, "age")));
+
+        Assertions.assertThat(first.getContent()).extracting("username").containsExactly("member5", "member4");
+        Assertions.assertThat(first.hasNext()).isTrue();
+        Assertions.assertThat(last.getContent()).extracting("username").containsExactly("member1");
+        Assertions.assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchPageByDeferredJoin_teamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        PageRequest request = PageRequest.of(0, 10, Sort.by("username"));
+        em.flush();
+        sqlStatementCounter.reset();
+
+        Page<MemberTeamDto> result = memberTestRepository.searchPageByDeferredJoin(condition, request);
+
+        // teamName 조건이 있으면 id 쿼리도 team 을 조인한다.
+        Assertions.assertThat(sqlStatementCounter.getStatements().get(0)).contains("join");
+        Assertions.assertThat(result.getContent()).extracting("username").containsExactly("member3", "member4");
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchPageByApplyPage_unsupportedSort() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest request = PageRequest.of(0, 10, Sort.by("team.name"));
+
+        Assertions.assertThatThrownBy(() -> memberTestRepository.searchPageByApplyPage(condition, request))
+                .isInstanceOf(UnsupportedSortException.class);
+    }
+
+    @Test
+    public void readOnlyQuery() {
+        // 이미 영속성 컨텍스트에 있는 엔티티는 힌트와 관계없이 그대로 반환되므로 비우고 조회한다.
+        em.flush();
+        em.clear();
+
+        List<Member> result = memberTestRepository.basicSelect();
+        Session session = em.unwrap(Session.class);
+
+        for (Member member : result) {
+            Assertions.assertThat(session.isReadOnly(member)).isTrue();
+            member.setUsername("changed");
+        }
+        em.flush();
+        em.clear();
+
+        // 읽기 전용으로 조회한 엔티티는 더티 체킹 대상이 아니다.
+        Assertions.assertThat(memberTestRepository.basicSelectFrom())
+                .extracting("username")
+                .doesNotContain("changed");
+    }
+}
@@ -0,0 +1,106 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 백그라운드 스레드에서 커밋하므로 @Transactional 로 롤백할 수 없다. 테스트가 끝나면 직접 지운다.
+ */
+@SpringBootTest
+class MemberWriteBehindRepositoryTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void after() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.username like 'behind%'").executeUpdate();
+            em.createQuery("delete from Team t where t.name = 'behindTeam'").executeUpdate();
+        });
+    }
+
+    @Test
+    public void saveBehind() throws Exception {
+        Team team = transactionTemplate.execute(status -> {
+            Team behindTeam = new Team("behindTeam");
+            em.persist(behindTeam);
+            return behindTeam;
+        });
+
+        List<CompletableFuture<Member>> futures = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            futures.add(memberRepository.saveBehind(new Member("behind" + i, i, team)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        for (CompletableFuture<Member> future : futures) {
+            Assertions.assertThat(future.get().getId()).isNotNull();
+        }
+        // future 가 완료되면 이미 커밋된 상태다.
+        Long count = transactionTemplate.execute(status -> em
+                .createQuery("select count(m) from Member m where m.username like 'behind%' and m.team.name = 'behindTeam'", Long.class)
+                .getSingleResult());
+        Assertions.assertThat(count).isEqualTo(250);
+    }
+
+    @Test
+    public void isolateFailedMember() throws Exception {
+        // 저장되지 않은 팀을 참조하는 회원은 실패하고, 같은 배치의 다른 회원은 저장되어야 한다.
+        Team transientTeam = new Team("behindTransient");
+        transientTeam.setId(Long.MAX_VALUE);
+
+        CompletableFuture<Member> ok1 = memberRepository.saveBehind(new Member("behindOk1", 10));
+        CompletableFuture<Member> bad = memberRepository.saveBehind(new Member("behindBad", 20, transientTeam));
+        CompletableFuture<Member> ok2 = memberRepository.saveBehind(new Member("behindOk2", 30));
+
+        Assertions.assertThat(ok1.get(10, TimeUnit.SECONDS).getId()).isNotNull();
+        Assertions.assertThat(ok2.get(10, TimeUnit.SECONDS).getId()).isNotNull();
+        Assertions.assertThatThrownBy(() -> bad.get(10, TimeUnit.SECONDS)).hasCauseInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    public void stopCompletesAllFutures() throws Exception {
+        // linger 가 길어서 stop() 시점에 워커가 배치를 들고 기다리고 있다.
+        MemberWriteBehindRepositoryImpl repository = new MemberWriteBehindRepositoryImpl(
+                em, transactionManager, new SimpleMeterRegistry(), 100, 100, 1_000, 100);
+        repository.start();
+
+        List<CompletableFuture<Member>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(repository.saveBehind(new Member("behindStop" + i, i)));
+        }
+        repository.stop();
+
+        for (CompletableFuture<Member> future : futures) {
+            Assertions.assertThat(future).isDone();
+            Assertions.assertThat(future.get().getId()).isNotNull();
+        }
+        Assertions.assertThatThrownBy(() -> repository.saveBehind(new Member("behindStopped", 10)).get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,46 @@
+package study.querydsl.repository.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void rejectWhenLimitAndQueueAreFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0, 0, 100);
+
+        Assertions.assertThat(limiter.tryAcquire()).isTrue();
+        Assertions.assertThat(limiter.tryAcquire()).isTrue();
+        Assertions.assertThat(limiter.tryAcquire()).isFalse();
+        Assertions.assertThat(limiter.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void decreaseOnSlowResponse() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 10, 0, 0, 100);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(500), true);
+        }
+
+        Assertions.assertThat(limiter.getLimit()).isLessThan(10);
+        Assertions.assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void increaseWhenSaturatedAndFast() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0, 0, 100);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1), true);
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(1), true);
+        }
+
+        Assertions.assertThat(limiter.getLimit()).isGreaterThan(2);
+    }
+}
@@ -0,0 +1,174 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberTestRepository;
+import study.querydsl.support.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@SpringBootTest
+@Transactional
+class CountQueryDeriverTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+    }
+
+    @Test
+    public void pruneUnreferencedLeftJoin() {
+        JPAQuery<MemberTeamDto> contentQuery = queryFactory
+                .select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(20))
+                .orderBy(member.username.desc());
+
+        JPAQuery<Long> countQuery = CountQueryDeriver.derive(em, contentQuery);
+        System.out.println("countQuery = " + countQuery);
+
+        Assertions.assertThat(countQuery.toString()).doesNotContain("left join", "order by");
+        Assertions.assertThat(countQuery.toString()).contains("count(member1.id)");
+        Assertions.assertThat(countQuery.fetchOne()).isEqualTo(contentQuery.fetchCount());
+    }
+
+    @Test
+    public void keepReferencedLeftJoin() {
+        JPAQuery<Member> contentQuery = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(team.name.eq("teamA"));
+
+        JPAQuery<Long> countQuery = CountQueryDeriver.derive(em, contentQuery);
+        System.out.println("countQuery = " + countQuery);
+
+        Assertions.assertThat(countQuery.toString()).contains("left join").doesNotContain("fetch");
+        Assertions.assertThat(countQuery.fetchOne()).isEqualTo(2L);
+    }
+
+    @Test
+    public void sameAsHandWrittenCount() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        MemberSearchCondition teamCondition = new MemberSearchCondition();
+        teamCondition.setTeamName("teamB");
+        PageRequest request = PageRequest.of(0, 2);
+
+        for (MemberSearchCondition c : new MemberSearchCondition[]{condition, teamCondition}) {
+            Page<MemberTeamDto> complex = memberRepository.searchPageComplex(c, request);
+            Page<Member> derived = memberTestRepository.applyPagination(c, request);
+            Page<Member> handWritten2 = memberTestRepository.applyPagination2(c, request);
+
+            Assertions.assertThat(complex.getTotalElements()).isEqualTo(handWrittenCount(c));
+            Assertions.assertThat(derived.getTotalElements()).isEqualTo(handWrittenCount(c));
+            Assertions.assertThat(derived.getTotalElements()).isEqualTo(handWritten2.getTotalElements());
+        }
+    }
+
+    /**
+     * searchPageComplex, searchPageComplexOptimization 의 count 쿼리를 직접 작성했던 쿼리와 비교한다.
+     */
+    @Test
+    public void searchPageCountSql() {
+        MemberSearchCondition ageCondition = new MemberSearchCondition();
+        ageCondition.setAgeGoe(20);
+        MemberSearchCondition teamCondition = new MemberSearchCondition();
+        teamCondition.setTeamName("teamB");
+        // 첫 페이지가 가득 차서 count 쿼리를 생략하지 않는다.
+        PageRequest request = PageRequest.of(0, 1);
+        em.flush();
+
+        for (MemberSearchCondition c : new MemberSearchCondition[]{ageCondition, teamCondition}) {
+            sqlStatementCounter.reset();
+            handWrittenCount(c);
+            String handWrittenSql = countSql();
+
+            sqlStatementCounter.reset();
+            Page<MemberTeamDto> complex = memberRepository.searchPageComplex(c, request);
+            String complexSql = countSql();
+
+            sqlStatementCounter.reset();
+            Page<MemberTeamDto> optimization = memberRepository.searchPageComplexOptimization(c, request);
+            String optimizationSql = countSql();
+
+            System.out.println("handWritten  = " + handWrittenSql);
+            System.out.println("derived      = " + complexSql);
+
+            Assertions.assertThat(handWrittenSql).contains("left outer join team");
+            Assertions.assertThat(complexSql).isEqualTo(optimizationSql);
+            Assertions.assertThat(complexSql).contains("from member member0_");
+            if (c.getTeamName() == null) {
+                // team 조건이 없으면 left join 을 제거한다.
+                Assertions.assertThat(complexSql).doesNotContain("join");
+            } else {
+                Assertions.assertThat(complexSql).contains("left outer join team");
+            }
+
+            long expected = handWrittenCount(c);
+            Assertions.assertThat(complex.getTotalElements()).isEqualTo(expected);
+            Assertions.assertThat(optimization.getTotalElements()).isEqualTo(expected);
+        }
+    }
+
+    // 변경 전 searchPageComplex 의 count 쿼리
+    private long handWrittenCount(MemberSearchCondition condition) {
+        return queryFactory
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        condition.getTeamName() != null ? team.name.eq(condition.getTeamName()) : null,
+                        condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null
+                )
+                .fetchCount();
+    }
+
+    private String countSql() {
+        return sqlStatementCounter.getStatements().stream()
+                .filter(sql -> sql.startsWith("select count("))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("count query was not executed: " + sqlStatementCounter.getStatements()));
+    }
+}
@@ -0,0 +1,134 @@
+package study.querydsl.repository.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.controller.support.DeadlineExceptionHandler;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class DeadlineJPAQueryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+    }
+
+    @AfterEach
+    public void after() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    public void applyQueryTimeout() {
+        RequestDeadline.start(2_500);
+
+        Query query = new DeadlineJPAQueryFactory(em).selectFrom(member).createQuery();
+
+        // 남은 시간을 초 단위로 올림해서 적용한다.
+        Assertions.assertThat(query.unwrap(org.hibernate.query.Query.class).getTimeout()).isEqualTo(3);
+    }
+
+    @Test
+    public void noDeadline() {
+        Query query = new DeadlineJPAQueryFactory(em).selectFrom(member).createQuery();
+
+        Assertions.assertThat(query.unwrap(org.hibernate.query.Query.class).getTimeout()).isNull();
+    }
+
+    @Test
+    public void deadlineExceeded() throws Exception {
+        RequestDeadline.start(1);
+        Thread.sleep(5);
+
+        Assertions.assertThatThrownBy(() -> memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 10)))
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+
+    @Test
+    public void propagate() throws Exception {
+        RequestDeadline.start(10_000);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Long withoutPropagation = executor.submit(RequestDeadline::remainingMillis).get();
+            Long withPropagation = executor.submit(RequestDeadline.propagate(RequestDeadline::remainingMillis)).get();
+
+            Assertions.assertThat(withoutPropagation).isEqualTo(Long.MAX_VALUE);
+            Assertions.assertThat(withPropagation).isBetween(1L, 10_000L);
+            // 작업이 끝나면 작업 스레드의 기한은 원래대로 돌아온다.
+            Assertions.assertThat(executor.submit(RequestDeadline::isSet).get()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void clientBound() {
+        RequestDeadline.start(10_000, 100);
+        Assertions.assertThat(RequestDeadline.isClientBound()).isTrue();
+        Assertions.assertThat(RequestDeadline.remainingMillis()).isLessThanOrEqualTo(100);
+
+        RequestDeadline.start(100, 10_000);
+        Assertions.assertThat(RequestDeadline.isClientBound()).isFalse();
+
+        RequestDeadline.start(Long.MAX_VALUE, Long.MAX_VALUE);
+        Assertions.assertThat(RequestDeadline.isSet()).isFalse();
+    }
+
+    @Test
+    public void queryTimeoutStatus() {
+        DeadlineExceptionHandler handler = new DeadlineExceptionHandler();
+        javax.persistence.QueryTimeoutException timeout = new javax.persistence.QueryTimeoutException("timeout");
+
+        // 서버 설정 기한으로 실행한 쿼리의 타임아웃은 과부하(503)
+        RequestDeadline.start(3_000, Long.MAX_VALUE);
+        Assertions.assertThat(handler.queryTimeout(timeout).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        // 클라이언트가 정한 짧은 기한 때문이면 504
+        RequestDeadline.start(3_000, 10);
+        Assertions.assertThat(handler.queryTimeout(timeout).getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    public void deadlineFromHeader() throws Exception {
+        mockMvc.perform(get("/v3/members").header("X-Request-Timeout-Ms", "1000"))
+                .andExpect(status().isOk());
+        // 요청이 끝나면 기한을 지운다.
+        Assertions.assertThat(RequestDeadline.isSet()).isFalse();
+    }
+}
@@ -0,0 +1,137 @@
+package study.querydsl.repository.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SingleFlightTest {
+
+    @Test
+    public void shareInFlightExecution() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            Future<SingleFlight.Result<Integer>> leader = executor.submit(() -> singleFlight.execute("teamA", () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            List<Future<SingleFlight.Result<Integer>>> followers = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute("teamA", executions::incrementAndGet)));
+            }
+            // follower 들이 모두 leader 의 실행을 기다리기 시작한 뒤 끝낸다.
+            awaitWaiters(singleFlight, "teamA", 7);
+            Assertions.assertThat(singleFlight.inFlightCount()).isEqualTo(1);
+            release.countDown();
+
+            Assertions.assertThat(leader.get().isShared()).isFalse();
+            for (Future<SingleFlight.Result<Integer>> follower : followers) {
+                Assertions.assertThat(follower.get().isShared()).isTrue();
+                Assertions.assertThat(follower.get().getValue()).isEqualTo(1);
+            }
+            Assertions.assertThat(executions.get()).isEqualTo(1);
+            Assertions.assertThat(singleFlight.inFlightCount()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void propagateFailure() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+        Assertions.assertThatThrownBy(() -> singleFlight.execute("teamA", () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // 실패한 실행은 남지 않으므로 다음 호출은 다시 실행된다.
+        Assertions.assertThat(singleFlight.execute("teamA", () -> 1).getValue()).isEqualTo(1);
+    }
+
+    @Test
+    public void followerWaitsOnlyUntilItsOwnTimeout() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<SingleFlight.Result<Integer>> leader = executor.submit(() -> singleFlight.execute("teamA", () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }, true, Long.MAX_VALUE));
+            started.await(5, TimeUnit.SECONDS);
+
+            Assertions.assertThatThrownBy(() -> singleFlight.execute("teamA", () -> 2, true, 10))
+                    .isInstanceOf(TimeoutException.class);
+
+            // leader 의 실행은 취소되지 않는다.
+            release.countDown();
+            Assertions.assertThat(leader.get().getValue()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void callerThatMayNotLeadRunsAlone() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<SingleFlight.Result<Integer>> alone = executor.submit(() -> singleFlight.execute("teamA", () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }, false, 10));
+            started.await(5, TimeUnit.SECONDS);
+
+            // 혼자 실행하는 호출은 다른 호출이 기다릴 수 있는 실행으로 등록되지 않는다.
+            Assertions.assertThat(singleFlight.inFlightCount()).isZero();
+            Assertions.assertThat(singleFlight.execute("teamA", () -> 2, true, 10).isShared()).isFalse();
+
+            release.countDown();
+            Assertions.assertThat(alone.get().getValue()).isEqualTo(1);
+            Assertions.assertThat(alone.get().isShared()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static <K> void awaitWaiters(SingleFlight<K, ?> singleFlight, K key, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.waiterCount(key) < expected) {
+            if (System.nanoTime() > deadline) {
+                Assertions.fail("waiters = " + singleFlight.waiterCount(key) + ", expected = " + expected);
+            }
+            Thread.yield();
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
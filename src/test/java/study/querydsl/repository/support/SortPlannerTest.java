@@ -0,0 +1,92 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import static study.querydsl.entity.QMember.member;
+
+class SortPlannerTest {
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    SortPlanner planner(SortPlanner.Policy policy) {
+        return SortPlanner.builder("member", member.id)
+                .allow("id", member.id)
+                .allow("username", member.username)
+                .allow("age", member.age)
+                .policy(policy)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
+    @Test
+    public void appendTiebreaker() {
+        Assertions.assertThat(planner(SortPlanner.Policy.REJECT).plan(Sort.by(Sort.Order.desc("age"))))
+                .containsExactly(member.age.desc(), member.id.desc());
+        Assertions.assertThat(planner(SortPlanner.Policy.REJECT).plan(Sort.by(Sort.Order.asc("age"))))
+                .containsExactly(member.age.asc(), member.id.asc());
+        Assertions.assertThat(planner(SortPlanner.Policy.REJECT).plan(Sort.unsorted()))
+                .containsExactly(member.id.asc());
+    }
+
+    @Test
+    public void tiebreakerFollowsLastKey() {
+        Assertions.assertThat(planner(SortPlanner.Policy.REJECT).plan(Sort.by(Sort.Order.asc("username"), Sort.Order.desc("age"))))
+                .containsExactly(member.username.asc(), member.age.desc(), member.id.desc());
+        Assertions.assertThat(planner(SortPlanner.Policy.REJECT).plan(Sort.by(Sort.Order.desc("username"), Sort.Order.asc("age"))))
+                .containsExactly(member.username.desc(), member.age.asc(), member.id.asc());
+
+        // 버려진 키가 아니라 실제로 쓰인 마지막 키의 방향을 따른다.
+        Sort ignored = Sort.by(Sort.Order.desc("age"), Sort.Order.asc("unknown"));
+        Assertions.assertThat(planner(SortPlanner.Policy.IGNORE).plan(ignored))
+                .containsExactly(member.age.desc(), member.id.desc());
+    }
+
+    @Test
+    public void stopAtTiebreaker() {
+        Sort sort = Sort.by(Sort.Order.desc("id"), Sort.Order.asc("age"));
+
+        Assertions.assertThat(planner(SortPlanner.Policy.REJECT).plan(sort))
+                .containsExactly(member.id.desc());
+    }
+
+    @Test
+    public void rejectUnknownProperty() {
+        Assertions.assertThatThrownBy(() -> planner(SortPlanner.Policy.REJECT).plan(Sort.by("team.name")))
+                .isInstanceOf(UnsupportedSortException.class);
+
+        Assertions.assertThat(meterRegistry.get("query.sort.rejected")
+                .tag("reason", SortPlanner.UNKNOWN_PROPERTY)
+                .tag("action", "rejected")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void ignoreUnsupportedOrders() {
+        Sort sort = Sort.by(
+                Sort.Order.asc("username").ignoreCase(),
+                Sort.Order.desc("age").nullsLast(),
+                Sort.Order.asc("age"),
+                Sort.Order.asc("username"),
+                Sort.Order.desc("unknown"));
+
+        Assertions.assertThat(planner(SortPlanner.Policy.IGNORE).plan(sort))
+                .containsExactly(member.age.asc(), member.username.asc(), member.id.asc());
+
+        Assertions.assertThat(meterRegistry.get("query.sort.rejected").tag("reason", SortPlanner.IGNORE_CASE).counter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("query.sort.rejected").tag("reason", SortPlanner.NULL_HANDLING).counter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("query.sort.rejected").tag("reason", SortPlanner.UNKNOWN_PROPERTY).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void rejectTooManyKeys() {
+        Sort sort = Sort.by("age", "username", "id");
+
+        Assertions.assertThatThrownBy(() -> planner(SortPlanner.Policy.REJECT).plan(sort))
+                .isInstanceOf(UnsupportedSortException.class)
+                .hasMessageContaining(SortPlanner.TOO_MANY_KEYS);
+    }
+}
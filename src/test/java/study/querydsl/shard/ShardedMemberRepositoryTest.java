@@ -0,0 +1,128 @@
+package study.querydsl.shard;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 여러 개의 H2 메모리 DB 를 샤드로 사용한다.
+ */
+class ShardedMemberRepositoryTest {
+
+    static final int SHARD_COUNT = 3;
+
+    MemberShards shards;
+    ShardedMemberRepository repository;
+
+    @BeforeEach
+    public void before() {
+        ShardProperties properties = new ShardProperties();
+        properties.setDdlAuto("create-drop");
+        String prefix = UUID.randomUUID().toString();
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            ShardProperties.Node node = new ShardProperties.Node();
+            node.setUrl("jdbc:h2:mem:" + prefix + "-shard" + i + ";DB_CLOSE_DELAY=-1");
+            properties.getDataSources().add(node);
+        }
+        shards = MemberShards.create(properties);
+        repository = new ShardedMemberRepository(shards);
+
+        for (int t = 0; t < 6; t++) {
+            Team team = repository.saveTeam(new Team("team" + t));
+            for (int m = 0; m < 5; m++) {
+                repository.saveMember(new Member("member" + t + "-" + m, t * 10 + m, team));
+            }
+        }
+        repository.saveMember(new Member("noTeam", 99));
+    }
+
+    @AfterEach
+    public void after() {
+        shards.close();
+    }
+
+    @Test
+    public void routeByTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team3");
+
+        List<MemberTeamDto> result = repository.search(condition);
+
+        Assertions.assertThat(result).hasSize(5);
+        Assertions.assertThat(result).extracting("teamName").containsOnly("team3");
+
+        // 팀 이름이 가리키는 샤드에만 데이터가 있다.
+        int owner = shards.indexOf("team3");
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            long count = shards.get(i).read(queryFactory -> queryFactory
+                    .selectFrom(team)
+                    .where(team.name.eq("team3"))
+                    .fetchCount());
+            Assertions.assertThat(count).isEqualTo(i == owner ? 1 : 0);
+        }
+    }
+
+    @Test
+    public void scatterGather() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        List<MemberTeamDto> result = repository.search(condition);
+
+        // team2 ~ team5 (20건) + noTeam
+        Assertions.assertThat(result).hasSize(21);
+    }
+
+    @Test
+    public void searchPage() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        List<MemberTeamDto> all = repository.search(condition);
+        List<Integer> expectedAges = all.stream()
+                .map(MemberTeamDto::getAge)
+                .sorted(Comparator.reverseOrder())
+                .collect(Collectors.toList());
+
+        List<Integer> pagedAges = new ArrayList<>();
+        for (int page = 0; page < 4; page++) {
+            Page<MemberTeamDto> result = repository.searchPage(condition, PageRequest.of(page, 8, Sort.by(Sort.Order.desc("age"))));
+            Assertions.assertThat(result.getTotalElements()).isEqualTo(31);
+            Assertions.assertThat(result.getTotalPages()).isEqualTo(4);
+            result.getContent().forEach(dto -> pagedAges.add(dto.getAge()));
+        }
+
+        Assertions.assertThat(pagedAges).containsExactlyElementsOf(expectedAges);
+    }
+
+    @Test
+    public void searchPageWithTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+
+        Page<MemberTeamDto> result = repository.searchPage(condition, PageRequest.of(1, 2, Sort.by("username")));
+
+        Assertions.assertThat(result.getTotalElements()).isEqualTo(5);
+        Assertions.assertThat(result.getContent()).extracting("username").containsExactly("member1-2", "member1-3");
+    }
+
+    @Test
+    public void unsupportedSort() {
+        Assertions.assertThatThrownBy(() -> repository.searchPage(new MemberSearchCondition(), PageRequest.of(0, 10, Sort.by("team.members"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package study.querydsl.support;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class BoundedRingBufferTest {
+
+    @Test
+    public void offerAndPoll() {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(3);
+
+        // 용량은 2 의 거듭제곱으로 올림
+        Assertions.assertThat(buffer.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertThat(buffer.offer(i)).isTrue();
+        }
+        Assertions.assertThat(buffer.offer(4)).isFalse();
+        Assertions.assertThat(buffer.size()).isEqualTo(4);
+
+        List<Integer> drained = new ArrayList<>();
+        Assertions.assertThat(buffer.drain(drained::add, 3)).isEqualTo(3);
+        Assertions.assertThat(drained).containsExactly(0, 1, 2);
+
+        // 한 바퀴 돌아서 다시 채울 수 있어야 한다.
+        Assertions.assertThat(buffer.offer(5)).isTrue();
+        Assertions.assertThat(buffer.poll()).isEqualTo(3);
+        Assertions.assertThat(buffer.poll()).isEqualTo(5);
+        Assertions.assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+
+            Set<Integer> received = new HashSet<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+                Integer value = buffer.poll();
+                if (value != null) {
+                    Assertions.assertThat(received.add(value)).isTrue();
+                }
+            }
+
+            Assertions.assertThat(received).hasSize(producers * perProducer);
+            Assertions.assertThat(buffer.isEmpty()).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package study.querydsl.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.assertj.core.api.Assertions;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 테스트에서 실행된 SQL 개수를 종류별로 센다. (p6spy 리스너로 등록)
+ *
+ * <pre>
+ * em.flush();
+ * sqlStatementCounter.reset();
+ * memberRepository.search(condition);
+ * sqlStatementCounter.assertCount(1, 0, 0, 0);  // select 1번, insert/update/delete 0번
+ * </pre>
+ * N+1 처럼 쿼리 수가 늘어나는 변경이 생기면 테스트가 실패한다.
+ */
+@Component
+public class SqlStatementCounter extends JdbcEventListener {
+
+    private final AtomicInteger selects = new AtomicInteger();
+    private final AtomicInteger inserts = new AtomicInteger();
+    private final AtomicInteger updates = new AtomicInteger();
+    private final AtomicInteger deletes = new AtomicInteger();
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = stripComments(statementInformation.getSql()).toLowerCase(Locale.ROOT);
+        statements.add(sql);
+        if (sql.startsWith("select") || sql.startsWith("with")) {
+            selects.incrementAndGet();
+        } else if (sql.startsWith("insert")) {
+            inserts.incrementAndGet();
+        } else if (sql.startsWith("update")) {
+            updates.incrementAndGet();
+        } else if (sql.startsWith("delete")) {
+            deletes.incrementAndGet();
+        }
+    }
+
+    public void reset() {
+        selects.set(0);
+        inserts.set(0);
+        updates.set(0);
+        deletes.set(0);
+        statements.clear();
+    }
+
+    /**
+     * reset() 이후 실행된 SQL (주석 제거, 소문자)
+     */
+    public List<String> getStatements() {
+        return new ArrayList<>(statements);
+    }
+
+    public int getSelectCount() {
+        return selects.get();
+    }
+
+    public int getInsertCount() {
+        return inserts.get();
+    }
+
+    public int getUpdateCount() {
+        return updates.get();
+    }
+
+    public int getDeleteCount() {
+        return deletes.get();
+    }
+
+    public void assertSelectCount(int expected) {
+        assertCount(expected, 0, 0, 0);
+    }
+
+    public void assertCount(int selects, int inserts, int updates, int deletes) {
+        Assertions.assertThat(getSelectCount()).as("select count").isEqualTo(selects);
+        Assertions.assertThat(getInsertCount()).as("insert count").isEqualTo(inserts);
+        Assertions.assertThat(getUpdateCount()).as("update count").isEqualTo(updates);
+        Assertions.assertThat(getDeleteCount()).as("delete count").isEqualTo(deletes);
+    }
+
+    // use_sql_comments 로 붙는 /* ... */ 주석을 제거한다.
+    private String stripComments(String sql) {
+        String result = sql == null ? "" : sql.trim();
+        while (result.startsWith("/*")) {
+            int end = result.indexOf("*/");
+            if (end < 0) {
+                return "";
+            }
+            result = result.substring(end + 2).trim();
+        }
+        return result;
+    }
+}